@@ -1,15 +1,32 @@
 // code by jph
 package ch.alpine.qhull3;
 
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
 import java.util.List;
 
+import ch.alpine.tensor.DoubleScalar;
 import ch.alpine.tensor.Tensor;
 import ch.alpine.tensor.alg.VectorQ;
 import ch.alpine.tensor.api.ScalarUnaryOperator;
+import ch.alpine.tensor.io.Primitives;
 import ch.alpine.tensor.qty.QuantityMagnitude;
 import ch.alpine.tensor.qty.QuantityUnit;
 
-/** uses QuickHull3D by John E. Lloyd, Fall 2004 */
+/** uses QuickHull3D by John E. Lloyd, Fall 2004
+ *
+ * <p>If every coordinate is a machine double, the hull is computed by
+ * {@link DoubleQuickHull3D}, otherwise by {@link QuickHull3D}.
+ * Each thread reuses one instance of {@link DoubleQuickHull3D} as workspace
+ * for inputs of moderate size, which computes in the calling thread only.
+ * Larger inputs are computed in a new instance, in parallel, so that the
+ * memory retained by each thread is bounded. */
 public enum ConvexHull3D {
   ;
   /** @param tensor of size n x 3, representing a list of vertices in 3-dimensional Euclidean space
@@ -17,8 +34,63 @@ public enum ConvexHull3D {
   public static List<int[]> of(Tensor tensor) {
     tensor.forEach(vector -> VectorQ.requireLength(vector, 3));
     ScalarUnaryOperator suo = QuantityMagnitude.singleton(QuantityUnit.of(tensor.Get(0, 0)));
-    QuickHull3D quickHull3D = new QuickHull3D(tensor.maps(suo));
+    Tensor points = tensor.maps(suo);
+    if (points.flatten(1).allMatch(DoubleScalar.class::isInstance)) {
+      DoubleQuickHull3D doubleQuickHull3D = Workspace.of(points.length());
+      doubleQuickHull3D.reset(Primitives.toDoubleArray(points));
+      doubleQuickHull3D.buildHull();
+      return doubleQuickHull3D.getFaces();
+    }
+    QuickHull3D quickHull3D = new QuickHull3D(points);
     quickHull3D.buildHull();
     return quickHull3D.getFaces();
   }
+
+  /** The file is mapped into memory, and the coordinates are read by
+   * {@link DoubleQuickHull3D} without conversion to {@link Tensor}. Coordinates
+   * in the format {@link PointFormat#FLOAT64} are read from the mapped file
+   * during the build without a copy.
+   *
+   * @param path to binary file with the x, y, and z coordinates of each point
+   * @param pointFormat of the coordinates in the file
+   * @return faces with vertex indices that refer to the points in the file
+   * @throws IOException if the file cannot be read
+   * @throws IllegalArgumentException if the size of the file does not match the format,
+   * or if the points appear to be coincident, colinear, or coplanar */
+  public static List<int[]> of(Path path, PointFormat pointFormat) throws IOException {
+    try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ); //
+        Arena arena = Arena.ofShared()) {
+      // the arena is shared, since the coordinates are read by the threads of a parallel build
+      MemorySegment memorySegment = fileChannel.map(MapMode.READ_ONLY, 0, fileChannel.size(), arena);
+      DoubleQuickHull3D doubleQuickHull3D = Workspace.of(pointFormat.numPoints(memorySegment));
+      doubleQuickHull3D.reset(memorySegment, pointFormat);
+      doubleQuickHull3D.buildHull();
+      return doubleQuickHull3D.getFaces();
+    }
+  }
+
+  /** Mode for very large sets of points: the input is split into chunks,
+   * the partial hulls of which are computed in parallel. The final hull is
+   * computed from the union of the vertices of the partial hulls.
+   *
+   * @param tensor of size n x 3, representing a list of vertices in 3-dimensional Euclidean space
+   * @return faces with vertex indices that refer to the rows of given tensor
+   * @see DivideAndConquerHull3D */
+  public static List<int[]> divideAndConquer(Tensor tensor) {
+    tensor.forEach(vector -> VectorQ.requireLength(vector, 3));
+    ScalarUnaryOperator suo = QuantityMagnitude.singleton(QuantityUnit.of(tensor.Get(0, 0)));
+    return DivideAndConquerHull3D.of(Primitives.toDoubleArray(tensor.maps(suo)));
+  }
+
+  /** Mode for sequences of points that do not fit into memory: only the
+   * vertices of the hull of the points so far and a chunk of points are
+   * held in memory.
+   *
+   * @param iterator of arrays with the x, y, and z coordinates of one or more points,
+   * for instance <code>stream.iterator()</code>
+   * @return hull with vertices identified by their position in the sequence of points
+   * @see StreamingHull3D */
+  public static StreamingHull3D streaming(Iterator<double[]> iterator) {
+    return StreamingHull3D.of(iterator, StreamingHull3D.DEFAULT_CHUNK_SIZE);
+  }
 }
@@ -0,0 +1,144 @@
+// code by jph
+package ch.alpine.qhull3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/** Convex hulls of many small sets of points, for instance one hull
+ * for each of a large number of objects.
+ *
+ * <p>The hulls are computed by {@link DoubleQuickHull3D} in the tasks of
+ * the common fork-join pool. Each thread reuses one instance as workspace,
+ * which is the same instance as for {@link ConvexHull3D#of(ch.alpine.tensor.Tensor)}.
+ * The input consists of plain coordinates, i.e. there is no conversion of
+ * units and no check of the dimensions of each row.
+ *
+ * <p>The faces of all hulls are stored in three arrays: the faces of set k
+ * are the faces with index setOffsets[k] to setOffsets[k + 1] - 1, and the
+ * vertices of face f are indices[faceOffsets[f]] to indices[faceOffsets[f + 1] - 1]
+ * in counter-clockwise order. The vertex indices are numbered with respect to
+ * the points of the set, starting at zero.
+ *
+ * <p>A set of points that is degenerate, i.e. that consists of less than four
+ * points, or of points that appear to be coincident, colinear, or coplanar,
+ * results in a hull without faces. */
+public final class ConvexHull3DBatch {
+  private static final int[] EMPTY = { 0 };
+
+  /** @param coords x, y, and z coordinates of the points of all sets
+   * @param offsets of length number of sets + 1, where the points of set k
+   * are the points with index offsets[k] to offsets[k + 1] - 1
+   * @return hulls of given sets of points
+   * @throws IllegalArgumentException if offsets are not non-decreasing, or do not refer to coords */
+  public static ConvexHull3DBatch of(double[] coords, int[] offsets) {
+    if (offsets.length == 0 || offsets[0] < 0 || coords.length < offsets[offsets.length - 1] * 3L)
+      throw new IllegalArgumentException("offsets out of range");
+    for (int set = 1; set < offsets.length; ++set)
+      if (offsets[set] < offsets[set - 1])
+        throw new IllegalArgumentException("offsets decreasing at " + set);
+    return of(offsets.length - 1, set -> {
+      DoubleQuickHull3D doubleQuickHull3D = Workspace.of(offsets[set + 1] - offsets[set]);
+      doubleQuickHull3D.reset(coords, offsets[set], offsets[set + 1]);
+      return doubleQuickHull3D;
+    });
+  }
+
+  /** @param list of x, y, and z coordinates of the points of each set
+   * @return hulls of given sets of points
+   * @throws IllegalArgumentException if the length of an array is not a multiple of three */
+  public static ConvexHull3DBatch of(List<double[]> list) {
+    for (double[] coords : list)
+      if (coords.length % 3 != 0)
+        throw new IllegalArgumentException("Coordinate array length not a multiple of three");
+    return of(list.size(), set -> {
+      DoubleQuickHull3D doubleQuickHull3D = Workspace.of(list.get(set).length / 3);
+      doubleQuickHull3D.reset(list.get(set));
+      return doubleQuickHull3D;
+    });
+  }
+
+  /** @param size number of sets
+   * @param function that provides the workspace for given set with the points loaded
+   * @return */
+  private static ConvexHull3DBatch of(int size, IntFunction<DoubleQuickHull3D> function) {
+    int[][] packed = IntStream.range(0, size).parallel().mapToObj(set -> {
+      try {
+        DoubleQuickHull3D doubleQuickHull3D = function.apply(set);
+        doubleQuickHull3D.buildHull();
+        return doubleQuickHull3D.getPackedFaces();
+      } catch (IllegalArgumentException illegalArgumentException) {
+        return EMPTY;
+      }
+    }).toArray(int[][]::new);
+    return new ConvexHull3DBatch(packed);
+  }
+
+  // ---
+  private final int[] setOffsets;
+  private final int[] faceOffsets;
+  private final int[] indices;
+
+  /** @param packed faces of each set in the format of {@link DoubleQuickHull3D#getPackedFaces()} */
+  private ConvexHull3DBatch(int[][] packed) {
+    setOffsets = new int[packed.length + 1];
+    int numFaces = 0;
+    int numIndices = 0;
+    for (int set = 0; set < packed.length; ++set) {
+      numFaces += packed[set][0];
+      numIndices += packed[set].length - 1 - packed[set][0];
+      setOffsets[set + 1] = numFaces;
+    }
+    faceOffsets = new int[numFaces + 1];
+    indices = new int[numIndices];
+    int face = 0;
+    int offset = 0;
+    for (int[] array : packed)
+      for (int index = 1; index < array.length;) {
+        int numVerts = array[index++];
+        System.arraycopy(array, index, indices, offset, numVerts);
+        index += numVerts;
+        offset += numVerts;
+        faceOffsets[++face] = offset;
+      }
+  }
+
+  /** @return number of sets of points */
+  public int size() {
+    return setOffsets.length - 1;
+  }
+
+  /** @param set
+   * @return number of faces of the hull of given set, 0 if the set is degenerate */
+  public int numFaces(int set) {
+    return setOffsets[set + 1] - setOffsets[set];
+  }
+
+  /** @param set
+   * @return faces of the hull of given set of points in the format of {@link ConvexHull3D#of(ch.alpine.tensor.Tensor)} */
+  public List<int[]> getFaces(int set) {
+    List<int[]> list = new ArrayList<>(numFaces(set));
+    for (int face = setOffsets[set]; face < setOffsets[set + 1]; ++face)
+      list.add(Arrays.copyOfRange(indices, faceOffsets[face], faceOffsets[face + 1]));
+    return list;
+  }
+
+  /** @return array of length number of sets + 1 with the index of the first face of each set,
+   * the array is not a copy */
+  public int[] getSetOffsets() {
+    return setOffsets;
+  }
+
+  /** @return array of length number of faces + 1 with the index of the first vertex of each face,
+   * the array is not a copy */
+  public int[] getFaceOffsets() {
+    return faceOffsets;
+  }
+
+  /** @return vertex indices of all faces of all sets, the array is not a copy */
+  public int[] getIndices() {
+    return indices;
+  }
+}
@@ -0,0 +1,99 @@
+// code by jph
+package ch.alpine.qhull3;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.stream.IntStream;
+
+/** Convex hull of a large set of points as the hull of partial hulls.
+ *
+ * <p>The input is split into chunks of consecutive points. The hull of each
+ * chunk is computed by {@link DoubleQuickHull3D} in a separate task of the
+ * common fork-join pool, or of the fork-join pool from which the method is
+ * invoked. Only the vertices of the partial hulls are candidates for the
+ * vertices of the final hull, which is computed from their union.
+ * Most points are eliminated locally, in parallel.
+ *
+ * <p>The faces refer to the indices of the input points. Up to the distance
+ * tolerance, the hull coincides with the hull of {@link DoubleQuickHull3D}.
+ * However, the order of the faces may differ.
+ *
+ * @see ConvexHull3D#divideAndConquer(ch.alpine.tensor.Tensor) */
+public enum DivideAndConquerHull3D {
+  ;
+  /** minimum number of points per chunk */
+  static final int MIN_CHUNK_SIZE = 1 << 14;
+
+  /** @param coords x, y, and z coordinates of each input point
+   * @return faces of the convex hull with vertex indices of the input points
+   * in counter-clockwise order
+   * @throws IllegalArgumentException if the points appear to be coincident,
+   * colinear, or coplanar */
+  public static List<int[]> of(double[] coords) {
+    int nump = coords.length / 3;
+    return of(coords, Math.max(1, Math.min(4 * parallelism(), nump / MIN_CHUNK_SIZE)));
+  }
+
+  /** @return parallelism of the fork-join pool in which the partial hulls are computed */
+  private static int parallelism() {
+    return Thread.currentThread() instanceof ForkJoinWorkerThread forkJoinWorkerThread //
+        ? forkJoinWorkerThread.getPool().getParallelism()
+        : ForkJoinPool.getCommonPoolParallelism();
+  }
+
+  /** @param coords x, y, and z coordinates of each input point
+   * @param chunks number of partial hulls, positive
+   * @return faces of the convex hull with vertex indices of the input points
+   * in counter-clockwise order
+   * @throws IllegalArgumentException if the points appear to be coincident,
+   * colinear, or coplanar */
+  public static List<int[]> of(double[] coords, int chunks) {
+    if (coords.length % 3 != 0)
+      throw new IllegalArgumentException("Coordinate array length not a multiple of three");
+    int nump = coords.length / 3;
+    chunks = Math.max(1, Math.min(chunks, nump / 4));
+    int[] candidates = candidates(coords, chunks);
+    double[] subset = new double[candidates.length * 3];
+    for (int index = 0; index < candidates.length; ++index)
+      System.arraycopy(coords, candidates[index] * 3, subset, index * 3, 3);
+    DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(subset);
+    doubleQuickHull3D.buildHull();
+    List<int[]> faces = doubleQuickHull3D.getFaces();
+    for (int[] face : faces)
+      for (int k = 0; k < face.length; ++k)
+        face[k] = candidates[face[k]];
+    return faces;
+  }
+
+  /** @param coords
+   * @param chunks
+   * @return indices of the vertices of the partial hulls in ascending order */
+  private static int[] candidates(double[] coords, int chunks) {
+    int nump = coords.length / 3;
+    if (chunks == 1)
+      return IntStream.range(0, nump).toArray();
+    int[][] vertices = IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+      int begin = (int) ((long) nump * chunk / chunks);
+      int end = (int) ((long) nump * (chunk + 1) / chunks);
+      DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D();
+      doubleQuickHull3D.setParallel(false);
+      doubleQuickHull3D.setPrefilter(true);
+      int[] indices;
+      try {
+        // the points of the chunk are read from coords without a copy of the range
+        doubleQuickHull3D.reset(coords, begin, end);
+        doubleQuickHull3D.buildHull();
+        indices = doubleQuickHull3D.getVertexIndices();
+      } catch (IllegalArgumentException illegalArgumentException) {
+        // points of chunk are degenerate, all of them remain candidates
+        indices = IntStream.range(0, end - begin).toArray();
+      }
+      for (int k = 0; k < indices.length; ++k)
+        indices[k] += begin;
+      return indices;
+    }).toArray(int[][]::new);
+    return Arrays.stream(vertices).flatMapToInt(Arrays::stream).toArray();
+  }
+}
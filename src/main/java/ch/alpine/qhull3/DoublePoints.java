@@ -0,0 +1,222 @@
+// code by jph
+package ch.alpine.qhull3;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/** input points of {@link DoubleQuickHull3D} stored as coordinates instead
+ * of one object per point
+ *
+ * <p>The coordinates are stored in one of two layouts, which is chosen when
+ * the points are set, so that the access to a coordinate does not test the
+ * origin of the points:
+ * <ul>
+ * <li>parallel double arrays of x, y, and z coordinates on the heap,
+ * <li>a segment with the x, y, and z coordinates of each point in the layout
+ * of {@link PointFormat#FLOAT64}, which is either allocated off-heap by an
+ * {@link Arena}, or is given to {@link #set(MemorySegment, PointFormat)},
+ * for instance a file that is mapped into memory.
+ * </ul>
+ *
+ * <p>Off-heap coordinates are not subject to garbage collection. The memory
+ * of an arena is released only when the arena is closed.
+ *
+ * <p>The storage is reused by {@link #set(double[])} if its capacity
+ * is sufficient for the new points. */
+final class DoublePoints {
+  /** layout of the coordinates in {@link PointFormat#FLOAT64} */
+  private static final ValueLayout.OfDouble FLOAT64_LE = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+  private sealed interface Storage permits ArrayStorage, SegmentStorage {
+    double x(int i);
+
+    double y(int i);
+
+    double z(int i);
+
+    void set(int i, double x, double y, double z);
+  }
+
+  /** coordinates on the heap, which are read from the arrays directly,
+   * since that is faster than the access via segments of the arrays */
+  private record ArrayStorage(double[] xArray, double[] yArray, double[] zArray) implements Storage {
+    ArrayStorage(int n) {
+      this(new double[n], new double[n], new double[n]);
+    }
+
+    @Override
+    public double x(int i) {
+      return xArray[i];
+    }
+
+    @Override
+    public double y(int i) {
+      return yArray[i];
+    }
+
+    @Override
+    public double z(int i) {
+      return zArray[i];
+    }
+
+    @Override
+    public void set(int i, double x, double y, double z) {
+      xArray[i] = x;
+      yArray[i] = y;
+      zArray[i] = z;
+    }
+  }
+
+  /** coordinates in the layout of {@link PointFormat#FLOAT64} */
+  private record SegmentStorage(MemorySegment segment) implements Storage {
+    @Override
+    public double x(int i) {
+      return segment.getAtIndex(FLOAT64_LE, 3L * i);
+    }
+
+    @Override
+    public double y(int i) {
+      return segment.getAtIndex(FLOAT64_LE, 3L * i + 1);
+    }
+
+    @Override
+    public double z(int i) {
+      return segment.getAtIndex(FLOAT64_LE, 3L * i + 2);
+    }
+
+    @Override
+    public void set(int i, double x, double y, double z) {
+      segment.setAtIndex(FLOAT64_LE, 3L * i, x);
+      segment.setAtIndex(FLOAT64_LE, 3L * i + 1, y);
+      segment.setAtIndex(FLOAT64_LE, 3L * i + 2, z);
+    }
+  }
+
+  // ---
+  /** arena that allocates the storage, or null if the storage is on the heap */
+  private final Arena arena;
+  /** storage that is allocated by this instance */
+  private Storage owned;
+  /** storage that the coordinates are read from, which is either the owned
+   * storage, or the segment given to {@link #set(MemorySegment, PointFormat)} */
+  private Storage storage;
+  /** number of points that fit into the owned storage */
+  private int capacity = 0;
+  private int size = 0;
+
+  /** empty set of points on the heap */
+  DoublePoints() {
+    arena = null;
+    storage = owned = allocate(0);
+  }
+
+  /** @param arena that allocates the memory for the coordinates */
+  DoublePoints(Arena arena) {
+    this.arena = Objects.requireNonNull(arena);
+    storage = owned = allocate(0);
+  }
+
+  /** @param coords x, y, and z coordinates of each point */
+  DoublePoints(double[] coords) {
+    this();
+    set(coords);
+  }
+
+  /** @param coords x, y, and z coordinates of each point */
+  void set(double[] coords) {
+    set(coords, 0, coords.length / 3);
+  }
+
+  /** @param coords x, y, and z coordinates of points
+   * @param begin index of first point in coords
+   * @param n number of points */
+  void set(double[] coords, int begin, int n) {
+    reserve(n, 0);
+    for (int i = 0, j = begin * 3; i < n; ++i, j += 3)
+      owned.set(i, coords[j], coords[j + 1], coords[j + 2]);
+    size = n;
+  }
+
+  /** Points in the format {@link PointFormat#FLOAT64} are read from the
+   * segment until the points are replaced. The segment has to remain valid
+   * and unmodified until then. Points in other formats are converted and
+   * copied to the storage of this instance.
+   *
+   * @param segment with x, y, and z coordinates of each point
+   * @param pointFormat of coordinates in segment */
+  void set(MemorySegment segment, PointFormat pointFormat) {
+    int n = pointFormat.numPoints(segment);
+    if (pointFormat.equals(PointFormat.FLOAT64))
+      storage = new SegmentStorage(segment);
+    else {
+      reserve(n, 0);
+      for (int i = 0; i < n; ++i) {
+        long j = 3L * i;
+        owned.set(i, pointFormat.get(segment, j), pointFormat.get(segment, j + 1), pointFormat.get(segment, j + 2));
+      }
+    }
+    size = n;
+  }
+
+  /** @param coords x, y, and z coordinates of points that are appended
+   * after the current points; the capacity grows geometrically */
+  void append(double[] coords) {
+    int n = coords.length / 3;
+    reserve(capacity < size + n ? Math.max(size + n, capacity * 2) : capacity, size);
+    for (int i = size, j = 0; j < coords.length; ++i, j += 3)
+      owned.set(i, coords[j], coords[j + 1], coords[j + 2]);
+    size += n;
+  }
+
+  /** After the call, the coordinates are read from the owned storage. The
+   * points of a segment given to {@link #set(MemorySegment, PointFormat)}
+   * are copied, because that segment is not owned and may be read-only.
+   *
+   * @param n minimum capacity
+   * @param retain number of current points that are kept */
+  private void reserve(int n, int retain) {
+    if (capacity < n) {
+      owned = allocate(n);
+      capacity = n;
+    }
+    if (storage != owned) {
+      for (int i = 0; i < retain; ++i)
+        owned.set(i, storage.x(i), storage.y(i), storage.z(i));
+      storage = owned;
+    }
+  }
+
+  /** @param n capacity
+   * @return new storage for n points */
+  private Storage allocate(int n) {
+    return Objects.isNull(arena) //
+        ? new ArrayStorage(n)
+        : new SegmentStorage(arena.allocate(3L * Double.BYTES * n, Double.BYTES));
+  }
+
+  /** @param i index of point
+   * @return x coordinate of point */
+  double x(int i) {
+    return storage.x(i);
+  }
+
+  /** @param i index of point
+   * @return y coordinate of point */
+  double y(int i) {
+    return storage.y(i);
+  }
+
+  /** @param i index of point
+   * @return z coordinate of point */
+  double z(int i) {
+    return storage.z(i);
+  }
+
+  /** @return number of points */
+  int size() {
+    return size;
+  }
+}
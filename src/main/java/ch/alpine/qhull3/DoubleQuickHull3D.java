@@ -0,0 +1,2264 @@
+// code by John E. Lloyd, adapted by jph
+package ch.alpine.qhull3;
+
+import java.io.PrintStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/** Computes the convex hull of a set of three dimensional points
+ * given as primitive double coordinates.
+ *
+ * <p>The algorithm and the sequence of operations are identical to
+ * {@link QuickHull3D}. However, all coordinates, plane normals, offsets
+ * and distances are held in primitive fields so that the hot loops
+ * do not allocate. For input that consists of machine doubles, the
+ * faces returned by {@link #getFaces()} coincide with the faces of
+ * {@link QuickHull3D#getFaces()}.
+ *
+ * <h3>Memory</h3>
+ * The input points are stored as parallel arrays of x, y, and z
+ * coordinates. The outside sets are linked lists threaded through the
+ * int arrays next and prev, and the face that a point is assigned to
+ * is the id of a face in the {@link HalfEdgeMesh}. The distance of a
+ * point to its face is stored with the assignment, so that the selection
+ * of the eye point does not compute distances again. Points are never
+ * materialized as objects; half-edges refer to their head vertex by index.
+ * Faces and half-edges are slots in the packed arrays of the mesh, which
+ * are recycled once the faces are removed from the hull.
+ * The cost per input point is 4 doubles and 3 ints, i.e. 44 bytes.
+ * In comparison, one <code>Vertex</code> object with 64-bit JVM and
+ * compressed references costs 12 bytes header, 1 int and 4 references
+ * (32 bytes) plus 4 bytes in the <code>Vertex[]</code>, plus the
+ * coordinate <code>Tensor</code> of 3 scalars that is referenced.
+ * The footprint of both layouts can be measured with
+ * <code>QuickHull3DHelper#memoryTests()</code>.
+ * The coordinates may be stored off-heap, see {@link #DoubleQuickHull3D(Arena)}.
+ *
+ * <h3>Reuse</h3>
+ * An instance may be used as a workspace for many hulls. After
+ * {@link #reset(double[])}, the next invocation of {@link #buildHull()}
+ * reuses the storage of the previous hulls, so that in steady state only
+ * the output is allocated. An instance is not thread-safe.
+ *
+ * @see ConvexHull3D */
+public class DoubleQuickHull3D {
+  /** Specifies that the distance tolerance should be
+   * computed automatically from the input point data. */
+  public static final double AUTOMATIC_TOLERANCE = -1;
+  /** Precision of a double. */
+  private static final double DOUBLE_PREC = Math.ulp(1.0);
+  /** bounds gamma(k) = k u / (1 - k u) of the relative error of k floating point
+   * operations with unit roundoff u = 2^-53, see {@link #setFilterBound(int)} */
+  private static final double GAMMA_4 = gamma(4);
+  private static final double GAMMA_6 = gamma(6);
+  private static final double GAMMA_8 = gamma(8);
+  private static final double GAMMA_16 = gamma(16);
+  /** minimum number of points for which passes over all points are
+   * distributed among the threads of the common fork-join pool */
+  static final int PARALLEL_THRESHOLD = 1 << 15;
+  /** number of points per task of a parallel pass */
+  private static final int CHUNK_SIZE = 1 << 13;
+  /** minimum number of unclaimed points that are assigned to new faces in parallel */
+  private static final int RESOLVE_THRESHOLD = 1 << 12;
+  /** minimum number of new faces for which the unclaimed points are located by a walk */
+  private static final int LOCATE_THRESHOLD = 1 << 6;
+  /** marker in vtxFace of points discarded by the prefilter */
+  private static final int CULLED = -2;
+  // ---
+  private final DoublePoints points;
+  /** links of outside sets */
+  private int[] vtxNext = new int[0];
+  private int[] vtxPrev = new int[0];
+  /** id of face in mesh that a point is outside of */
+  private int[] vtxFace = new int[0];
+  /** distance of a point above the plane of the face that it is outside of */
+  private double[] vtxDist = new double[0];
+  private final int[] maxVtxs = new int[3];
+  private final int[] minVtxs = new int[3];
+  private final HalfEdgeMesh mesh;
+  private final IntList horizon = new IntList();
+  private final IntList newFaces = new IntList();
+  private final IntList discarded = new IntList(3);
+  /** half-edges of the face being merged that are to be tested */
+  private final IntList worklist = new IntList();
+  private final IntList orphans = new IntList();
+  /** eye points and their faces of an iteration of speculative insertion */
+  private final IntList batchEyes = new IntList();
+  private final IntList batchFaces = new IntList();
+  /** buffers of the horizons of the eye points of an iteration, see {@link #setEyeBatchSize(int)} */
+  private Speculation[] speculations = new Speculation[0];
+  /** pairs of half-edges of the depth-first search of the horizon */
+  private final IntList horizonStack = new IntList();
+  /** results of the chunks of a pass over all input points */
+  private int[] chunkBuffer = new int[6];
+  private IntVertexList unclaimed = new IntVertexList(vtxNext, vtxPrev);
+  private IntVertexList claimed = new IntVertexList(vtxNext, vtxPrev);
+  private boolean debug = false;
+  private boolean parallel = true;
+  private boolean prefilter = false;
+  private boolean robust = false;
+  private boolean worklistMerge = false;
+  private int eyeBatchSize = 1;
+  private EyeStrategy eyeStrategy = EyeStrategy.OUTSIDE_SET_ORDER;
+  private Validation validation = Validation.CHEAP;
+  /** faces keyed by the distance of their farthest outside point, see {@link EyeStrategy#FARTHEST} */
+  private final FaceHeap faceHeap = new FaceHeap();
+  /** farthest point of the outside set of each face, or -1, and its distance */
+  private int[] faceMaxVtx = new int[0];
+  private double[] faceMaxDist = new double[0];
+  /** plane stamp of each face for which the distances of its outside points
+   * have been computed, see {@link HalfEdgeMesh#planeStamp(int)} */
+  private int[] faceDistStamp = new int[0];
+  /** distance of the centroid of the opposite face above the plane of the face
+   * of each half-edge, and the plane stamps of both faces at the computation */
+  private double[] heOppDist = new double[0];
+  private int[] heFaceStamp = new int[0];
+  private int[] heOppStamp = new int[0];
+  /** in robust mode, the error bound of the distance to the plane of each
+   * triangle is slope times the distance of the point to the first vertex
+   * plus base, see {@link #setFilterBound(int)} */
+  private double[] faceBound = new double[0];
+  /** planes {nx, ny, nz, offset} of the polytope of the prefilter */
+  private double[] cullPlanes = new double[0];
+  private int numCullPlanes = 0;
+  private int numCulled = 0;
+  private int numIterations = 0;
+  private int numMerges = 0;
+  private double explicitTolerance = AUTOMATIC_TOLERANCE;
+  private double tolerance = 0;
+  /** true if the mesh is the hull of all points */
+  private boolean built = false;
+  /** centroid {x, y, z} of the initial simplex, which remains in the interior of the hull */
+  private final double[] interior = new double[3];
+
+  /** @param coords x, y, and z coordinates of each input
+   * point. The length of this array will be three times
+   * the number of input points.
+   * @throws IllegalArgumentException the number of input points is less
+   * than four */
+  public DoubleQuickHull3D(double[] coords) throws IllegalArgumentException {
+    this(new DoublePoints());
+    setPoints(coords);
+  }
+
+  /** Creates a workspace without points. Before a hull can be built,
+   * the points have to be specified via {@link #reset(double[])}. */
+  public DoubleQuickHull3D() {
+    this(new DoublePoints());
+  }
+
+  /** Creates a workspace without points that stores the coordinates of the
+   * input points off-heap in memory allocated by the given arena, so that
+   * the coordinates of very large inputs are not subject to garbage
+   * collection. The faces, half-edges and outside sets remain on the heap.
+   *
+   * <p>The memory is owned by the arena: the instance must not be used after
+   * the arena is closed. If the capacity is enlarged by {@link #reset(double[])},
+   * the previous memory is released only when the arena is closed.
+   *
+   * @param arena for instance {@link Arena#ofShared()} if the hull is built in parallel */
+  public DoubleQuickHull3D(Arena arena) {
+    this(new DoublePoints(arena));
+  }
+
+  private DoubleQuickHull3D(DoublePoints points) {
+    this.points = points;
+    mesh = new HalfEdgeMesh(points);
+  }
+
+  /** Replaces the input points of this instance. The storage of points,
+   * faces and half-edges is retained, and is only enlarged if the new
+   * point set requires more capacity than any previous one. Settings such
+   * as the explicit distance tolerance and debug are not affected.
+   *
+   * @param coords x, y, and z coordinates of each input
+   * point. The length of this array will be three times
+   * the number of input points.
+   * @throws IllegalArgumentException the number of input points is less
+   * than four */
+  public void reset(double[] coords) throws IllegalArgumentException {
+    setPoints(coords);
+  }
+
+  /** Replaces the input points of this instance with a range of points
+   * from a larger buffer without copying the range beforehand.
+   *
+   * @param coords x, y, and z coordinates of points
+   * @param begin index of first point in coords
+   * @param end index after last point in coords
+   * @throws IllegalArgumentException the number of input points is less
+   * than four
+   * @see #reset(double[]) */
+  public void reset(double[] coords, int begin, int end) throws IllegalArgumentException {
+    Objects.checkFromToIndex(begin * 3, end * 3, coords.length);
+    setPoints(coords, begin, end - begin);
+  }
+
+  /** Replaces the input points of this instance with the points in given
+   * segment of memory, for instance a file that is mapped into memory.
+   * Coordinates in the format {@link PointFormat#FLOAT64} are not copied,
+   * but are read from the segment whenever they are needed. Then, the
+   * segment has to remain valid and unmodified until the points are replaced,
+   * and has to be accessible from the threads of the common fork-join pool
+   * if the hull is built in parallel. Coordinates in other formats are
+   * converted and copied to the storage of this instance, and the segment is
+   * not accessed afterwards.
+   *
+   * @param segment with x, y, and z coordinates of each input point
+   * @param pointFormat of coordinates in segment
+   * @throws IllegalArgumentException the number of input points is less
+   * than four, or the size of the segment does not match the format
+   * @see #reset(double[]) */
+  public void reset(MemorySegment segment, PointFormat pointFormat) throws IllegalArgumentException {
+    int nump = pointFormat.numPoints(segment);
+    if (nump < 4)
+      throw new IllegalArgumentException("Less than four input points specified");
+    points.set(segment, pointFormat);
+    setCapacity(nump);
+  }
+
+  private void setPoints(double[] coords) {
+    if (coords.length % 3 != 0)
+      throw new IllegalArgumentException("Coordinate array length not a multiple of three");
+    setPoints(coords, 0, coords.length / 3);
+  }
+
+  private void setPoints(double[] coords, int begin, int nump) {
+    if (nump < 4)
+      throw new IllegalArgumentException("Less than four input points specified");
+    // ---
+    points.set(coords, begin, nump);
+    setCapacity(nump);
+  }
+
+  /** Enlarges the storage for the given number of input points, which
+   * have been set already, and discards the previous hull.
+   *
+   * @param nump number of input points */
+  private void setCapacity(int nump) {
+    if (vtxNext.length < nump) {
+      vtxNext = new int[nump];
+      vtxPrev = new int[nump];
+      vtxFace = new int[nump];
+      vtxDist = new double[nump];
+      unclaimed = new IntVertexList(vtxNext, vtxPrev);
+      claimed = new IntVertexList(vtxNext, vtxPrev);
+    }
+    mesh.clear();
+    tolerance = 0;
+    built = false;
+  }
+
+  /** @throws IllegalArgumentException if the points appear to be coincident,
+   * colinear, or coplanar
+   * @throws IllegalStateException if no points have been specified */
+  public void buildHull() {
+    if (numPoints() == 0)
+      throw new IllegalStateException("no points");
+    built = false;
+    mesh.clear();
+    claimed.clear();
+    unclaimed.clear();
+    Arrays.fill(faceMaxVtx, -1);
+    numIterations = 0;
+    numMerges = 0;
+    computeMaxAndMin();
+    computeCullPlanes();
+    createInitialSimplex();
+    addClaimedPointsToHull();
+    built = true;
+  }
+
+  /** Extends the hull by the given points. The new points are appended to the
+   * input points, i.e. the index of the first new point is the number of
+   * points prior to the invocation.
+   *
+   * <p>Each new point is located by a walk along the adjacency of the faces
+   * towards the face through which the ray from a fixed interior point to
+   * the new point leaves the hull. The walk starts at a face in the direction
+   * of the new point that is looked up in a table of the faces partitioned
+   * by direction. Points inside the hull are discarded. The
+   * remaining points are inserted into the hull the same way as during
+   * {@link #buildHull()}. The cost is proportional to the number of new
+   * points times the length of the walks, plus the changes to the hull, but
+   * does not depend on the number of points inserted previously.
+   *
+   * <p>The distance tolerance is not updated, and the points are not subject
+   * to the prefilter.
+   *
+   * @param coords x, y, and z coordinates of the new points
+   * @throws IllegalStateException if the hull has not been built
+   * @throws IllegalArgumentException if the length of coords is not a multiple of three */
+  public void addPoints(double[] coords) {
+    if (!built)
+      throw new IllegalStateException("hull not built");
+    if (coords.length % 3 != 0)
+      throw new IllegalArgumentException("Coordinate array length not a multiple of three");
+    int begin = numPoints();
+    points.append(coords);
+    int end = numPoints();
+    if (vtxNext.length < end) {
+      int capacity = Math.max(end, vtxNext.length * 2);
+      vtxNext = Arrays.copyOf(vtxNext, capacity);
+      vtxPrev = Arrays.copyOf(vtxPrev, capacity);
+      vtxFace = Arrays.copyOf(vtxFace, capacity);
+      vtxDist = Arrays.copyOf(vtxDist, capacity);
+      unclaimed = new IntVertexList(vtxNext, vtxPrev);
+      claimed = new IntVertexList(vtxNext, vtxPrev);
+    }
+    built = false;
+    // the walks start at a face in the direction of the new point if there
+    // are enough new points to amortize the table of faces by direction,
+    // the cells hold about 16 faces each so that few cells are empty
+    int resolution = (long) (end - begin) * (end - begin) < mesh.numFaces() //
+        ? 0
+        : Math.clamp((int) Math.sqrt(mesh.numFaces() / 96), 1, 256);
+    int[] seeds = seedFaces(resolution);
+    // every chunk of new points is located independently, the walk of
+    // each point starts at the face in its direction, or at the face
+    // located for the preceding point
+    int chunks = (end - begin + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    IntConsumer intConsumer = chunk -> {
+      int face = mesh.firstFace();
+      for (int vtx = begin + chunk * CHUNK_SIZE; vtx < Math.min(end, begin + (chunk + 1) * CHUNK_SIZE); ++vtx) {
+        if (0 < resolution) {
+          int seed = seeds[directionCell(points.x(vtx), points.y(vtx), points.z(vtx), resolution)];
+          if (0 <= seed)
+            face = seed;
+        }
+        int hit = locate(vtx, face, -1);
+        if (hit < 0)
+          vtxFace[vtx] = maxHullFace(vtx);
+        else {
+          vtxFace[vtx] = outsideFace(vtx, hit);
+          face = hit;
+        }
+      }
+    };
+    if (parallel && PARALLEL_THRESHOLD <= end - begin)
+      IntStream.range(0, chunks).parallel().forEach(intConsumer);
+    else
+      IntStream.range(0, chunks).forEach(intConsumer);
+    claimed.clear();
+    for (int vtx = begin; vtx < end; ++vtx) {
+      int face = vtxFace[vtx];
+      if (0 <= face)
+        addPointToFace(vtx, face, vtxDist[vtx]);
+    }
+    addClaimedPointsToHull();
+    built = true;
+  }
+
+  /** @param resolution number of cells along each edge of the six faces of a cube
+   * that partition the directions around the interior point
+   * @return table with one face of the hull for each cell, or -1 if no vertex
+   * in the direction of the cell */
+  private int[] seedFaces(int resolution) {
+    int[] seeds = new int[6 * resolution * resolution];
+    Arrays.fill(seeds, -1);
+    if (0 < resolution)
+      for (int face = mesh.firstFace(); 0 <= face; face = mesh.nextFace(face)) {
+        int vtx = mesh.head(mesh.he0(face));
+        seeds[directionCell(points.x(vtx), points.y(vtx), points.z(vtx), resolution)] = face;
+      }
+    return seeds;
+  }
+
+  /** @param x
+   * @param y
+   * @param z
+   * @param resolution positive
+   * @return index of cell of the direction from the interior point to given coordinates */
+  private int directionCell(double x, double y, double z, int resolution) {
+    return StaticHelper.directionCell(x - interior[0], y - interior[1], z - interior[2], resolution);
+  }
+
+  /** The walk proceeds across the edge of the current face that separates the
+   * point from the cone spanned by the interior point and the face.
+   *
+   * @param vtx
+   * @param face to start the walk from
+   * @param apex vertex of every face that the walk may visit, or -1
+   * @return face of the hull in the cone of which the point lies, or -1 if the
+   * walk reaches a face without the apex, or does not terminate within the
+   * number of faces of the hull */
+  private int locate(int vtx, int face, int apex) {
+    double cx = interior[0];
+    double cy = interior[1];
+    double cz = interior[2];
+    double px = points.x(vtx) - cx;
+    double py = points.y(vtx) - cy;
+    double pz = points.z(vtx) - cz;
+    for (int step = 0; step < mesh.numFaces(); ++step) {
+      int exit = -1;
+      double minDet = 0;
+      boolean contains = apex < 0;
+      int he0 = mesh.he0(face);
+      int he = he0;
+      do {
+        int a = mesh.tail(he);
+        int b = mesh.head(he);
+        contains |= b == apex;
+        double ax = points.x(a) - cx;
+        double ay = points.y(a) - cy;
+        double az = points.z(a) - cz;
+        double bx = points.x(b) - cx;
+        double by = points.y(b) - cy;
+        double bz = points.z(b) - cz;
+        double det = //
+            px * (ay * bz - az * by) + //
+                py * (az * bx - ax * bz) + //
+                pz * (ax * by - ay * bx);
+        if (det < minDet) {
+          minDet = det;
+          exit = he;
+        }
+        he = mesh.next(he);
+      } while (he != he0);
+      if (!contains)
+        return -1;
+      if (exit < 0 && robust)
+        exit = exactExit(vtx, face);
+      if (exit < 0)
+        return face;
+      face = mesh.oppositeFace(exit);
+    }
+    return -1;
+  }
+
+  /** The floating point walk found no exit, so that the determinant of every
+   * half-edge is non-negative in floating point arithmetic. Only half-edges
+   * with a determinant within the error bound of {@link Orient3D} are tested
+   * in exact arithmetic.
+   *
+   * @param vtx
+   * @param face
+   * @return half-edge of given face across which the walk to the given point
+   * proceeds by the exact sign of the orientation, or -1 if the point is in
+   * the cone spanned by the interior point and the face */
+  private int exactExit(int vtx, int face) {
+    double cx = interior[0];
+    double cy = interior[1];
+    double cz = interior[2];
+    double px = points.x(vtx) - cx;
+    double py = points.y(vtx) - cy;
+    double pz = points.z(vtx) - cz;
+    int he0 = mesh.he0(face);
+    int he = he0;
+    do {
+      int a = mesh.tail(he);
+      int b = mesh.head(he);
+      double ax = points.x(a) - cx;
+      double ay = points.y(a) - cy;
+      double az = points.z(a) - cz;
+      double bx = points.x(b) - cx;
+      double by = points.y(b) - cy;
+      double bz = points.z(b) - cz;
+      double aybz = ay * bz;
+      double azby = az * by;
+      double azbx = az * bx;
+      double axbz = ax * bz;
+      double axby = ax * by;
+      double aybx = ay * bx;
+      double det = px * (aybz - azby) + py * (azbx - axbz) + pz * (axby - aybx);
+      double permanent = //
+          Math.abs(px) * (Math.abs(aybz) + Math.abs(azby)) + //
+              Math.abs(py) * (Math.abs(azbx) + Math.abs(axbz)) + //
+              Math.abs(pz) * (Math.abs(axby) + Math.abs(aybx));
+      if (det <= Orient3D.ERR_BOUND * permanent && Orient3D.exact( //
+          cx, cy, cz, //
+          points.x(a), points.y(a), points.z(a), //
+          points.x(b), points.y(b), points.z(b), //
+          points.x(vtx), points.y(vtx), points.z(vtx)) < 0)
+        return he;
+      he = mesh.next(he);
+    } while (he != he0);
+    return -1;
+  }
+
+  /** @param vtx
+   * @param face located for given point
+   * @return face to which the point is assigned, or -1 if the point is inside the hull;
+   * the distance to the face is stored in vtxDist */
+  private int outsideFace(int vtx, int face) {
+    double dist = mesh.distanceToPlane(face, vtx);
+    if (isAbove(face, vtx, dist)) {
+      vtxDist[vtx] = dist;
+      return face;
+    }
+    // in robust mode, the point is in the cone of the face and not above the face
+    if (robust || dist < -tolerance)
+      return -1;
+    // points close to the plane of the located face are tested against all faces
+    return maxHullFace(vtx);
+  }
+
+  /** @param vtx
+   * @return face with the greatest distance of given point above its plane
+   * beyond the tolerance, or -1 if there is no such face; the distance is stored in vtxDist */
+  private int maxHullFace(int vtx) {
+    double maxDist = minDistance();
+    int maxFace = -1;
+    for (int face = mesh.firstFace(); 0 <= face; face = mesh.nextFace(face)) {
+      double dist = mesh.distanceToPlane(face, vtx);
+      if (maxDist < dist && isAbove(face, vtx, dist)) {
+        maxFace = face;
+        maxDist = dist;
+      }
+    }
+    vtxDist[vtx] = maxDist;
+    return maxFace;
+  }
+
+  /** Inserts the farthest points of the outside sets until no point is claimed by a face. */
+  private void addClaimedPointsToHull() {
+    while (!claimed.isEmpty()) {
+      if (eyeBatchSize == 1) {
+        int eyeVtx = nextPointToAdd();
+        addPointToHull(eyeVtx);
+      } else
+        addBatchToHull();
+      numIterations++;
+      if (debug)
+        System.out.println("iteration " + numIterations + " done");
+    }
+    // the remaining entries refer to faces without outside points
+    faceHeap.clear();
+    if (debug)
+      System.out.println("hull done");
+  }
+
+  /** @return true is debugging is enabled
+   * @see #setDebug */
+  public boolean getDebug() {
+    return debug;
+  }
+
+  /** Enables the printing of debugging diagnostics.
+   *
+   * @param enable if true, enables debugging */
+  public void setDebug(boolean enable) {
+    debug = enable;
+  }
+
+  /** @return true if passes over all input points may run in parallel
+   * @see #setParallel(boolean) */
+  public boolean getParallel() {
+    return parallel;
+  }
+
+  /** Permits passes over all input points to be distributed among the
+   * threads of the common fork-join pool, if the number of points is large.
+   * The hull does not depend on this setting. The default is true.
+   *
+   * @param enable if false, the hull is computed in the calling thread only */
+  public void setParallel(boolean enable) {
+    parallel = enable;
+  }
+
+  /** @return true if points in the interior of the polytope spanned
+   * by extreme points are discarded before the hull is built
+   * @see #setPrefilter(boolean) */
+  public boolean getPrefilter() {
+    return prefilter;
+  }
+
+  /** Enables the Akl-Toussaint heuristic: the points that are extreme
+   * along the 3 coordinate axes and the 4 diagonals of the unit cube,
+   * in both orientations, span a polytope that is contained in the hull.
+   * All points in the interior of this polytope are discarded in a single
+   * pass over the input before the outside sets are formed. The prefilter
+   * pays off if most points are in the interior of the hull. The default
+   * is false.
+   *
+   * @param enable */
+  public void setPrefilter(boolean enable) {
+    prefilter = enable;
+  }
+
+  /** @return true if the visibility of faces is decided by exact predicates
+   * @see #setRobust(boolean) */
+  public boolean getRobust() {
+    return robust;
+  }
+
+  /** Robust mode: whether a point is above a face is decided by the sign of
+   * the orientation of the point with respect to the three vertices of the
+   * face, see {@link Orient3D}, instead of the distance to the plane of the
+   * face with respect to the distance tolerance. The orientation is evaluated
+   * in floating point arithmetic with an error bound, and in exact arithmetic
+   * only if the floating point sign is uncertain. The faces are not merged,
+   * so that every face is a triangle, and the hull is convex in exact
+   * arithmetic: the opposite vertex of the neighbouring triangle of every
+   * edge is below or in the plane of the triangle. Coplanar triangles are
+   * not merged, and points in the plane of a face are inside the hull.
+   * The distances are used only to select the eye points.
+   *
+   * <p>The prefilter is not applied in robust mode. The default is false.
+   *
+   * @param enable */
+  public void setRobust(boolean enable) {
+    robust = enable;
+  }
+
+  /** @return true if the merges of a face are driven by a worklist of edges
+   * @see #setWorklistMerge(boolean) */
+  public boolean getWorklistMerge() {
+    return worklistMerge;
+  }
+
+  /** By default, the scan for an edge of a new face that qualifies for a
+   * merge restarts at the first edge of the face after every merge, as in
+   * {@link QuickHull3D}. A face that absorbs m neighbours is scanned m + 1
+   * times in full. If enabled, the edges of the face form a worklist instead.
+   * A merge appends only the edges that it joined, and only these are tested
+   * again. The hull is convex within the tolerance. However, the faces are
+   * merged in a different order, so that the faces may differ from those of
+   * {@link QuickHull3D} within the tolerance. The default is false.
+   *
+   * @param enable */
+  public void setWorklistMerge(boolean enable) {
+    worklistMerge = enable;
+  }
+
+  /** @return number of input points discarded by the prefilter
+   * during the most recently computed hull
+   * @see #setPrefilter(boolean) */
+  public int getNumCulled() {
+    return numCulled;
+  }
+
+  /** @return maximum number of eye points whose horizons are computed concurrently
+   * @see #setEyeBatchSize(int) */
+  public int getEyeBatchSize() {
+    return eyeBatchSize;
+  }
+
+  /** Speculative insertion: in each iteration, the farthest points of up to
+   * the given number of faces are selected as eye points. Their visible
+   * faces and horizons are computed concurrently without modification of
+   * the hull. Then, the eye points are inserted one after the other.
+   * The insertion of an eye point relies on its precomputed horizon only if
+   * none of the faces visited during the computation has been changed by
+   * the preceding insertions. Otherwise, the eye point is left to a
+   * subsequent iteration.
+   *
+   * <p>The hull does not depend on the number of threads. However, since
+   * the points are inserted in a different order, the faces may differ
+   * from those obtained with the default batch size 1 in order and, within
+   * the tolerance, in shape.
+   *
+   * @param size positive
+   * @throws IllegalArgumentException if size is not positive */
+  public void setEyeBatchSize(int size) {
+    if (size < 1)
+      throw new IllegalArgumentException("batch size " + size);
+    eyeBatchSize = size;
+  }
+
+  /** @return strategy that selects the next eye point
+   * @see #setEyeStrategy(EyeStrategy) */
+  public EyeStrategy getEyeStrategy() {
+    return eyeStrategy;
+  }
+
+  /** Selects the order in which the points are inserted. The default is
+   * {@link EyeStrategy#OUTSIDE_SET_ORDER}, for which the faces coincide with
+   * those of {@link QuickHull3D}. For a batch size greater than 1, the eye
+   * points are the farthest points of the first faces in the given order.
+   *
+   * @param eyeStrategy
+   * @see #setEyeBatchSize(int) */
+  public void setEyeStrategy(EyeStrategy eyeStrategy) {
+    this.eyeStrategy = Objects.requireNonNull(eyeStrategy);
+  }
+
+  /** @return level of the consistency checks
+   * @see #setValidation(Validation) */
+  public Validation getValidation() {
+    return validation;
+  }
+
+  /** Sets the level of the consistency checks during the construction of the
+   * hull. The default is {@link Validation#CHEAP}. The level does not affect
+   * {@link #check(PrintStream)}.
+   *
+   * @param validation
+   * @see QuickHull3D#setValidation(Validation) */
+  public void setValidation(Validation validation) {
+    this.validation = Objects.requireNonNull(validation);
+  }
+
+  /** @return number of iterations during the most recently computed hull,
+   * i.e. the number of eye points, or of batches of eye points */
+  int getNumIterations() {
+    return numIterations;
+  }
+
+  /** @return number of merges of adjacent faces during the most recently computed hull */
+  int getNumMerges() {
+    return numMerges;
+  }
+
+  /** @return distance tolerance that was used for the most recently computed hull
+   * @see QuickHull3D#getDistanceTolerance() */
+  public double getDistanceTolerance() {
+    return tolerance;
+  }
+
+  /** Sets an explicit distance tolerance for convexity tests.
+   * If {@link #AUTOMATIC_TOLERANCE AUTOMATIC_TOLERANCE}
+   * is specified (the default), then the tolerance will be computed
+   * automatically from the point data.
+   *
+   * @param tol explicit tolerance */
+  public void setExplicitDistanceTolerance(double tol) {
+    explicitTolerance = tol;
+  }
+
+  /** @return explicit tolerance
+   * @see #setExplicitDistanceTolerance */
+  public double getExplicitDistanceTolerance() {
+    return explicitTolerance;
+  }
+
+  /** @param vtx
+   * @param face
+   * @param dist of point above the plane of face */
+  private void addPointToFace(int vtx, int face, double dist) {
+    if (faceMaxVtx.length <= face) {
+      int length = faceMaxVtx.length;
+      faceMaxVtx = Arrays.copyOf(faceMaxVtx, Math.max(face + 1, length * 2));
+      faceMaxDist = Arrays.copyOf(faceMaxDist, faceMaxVtx.length);
+      faceDistStamp = Arrays.copyOf(faceDistStamp, faceMaxVtx.length);
+      Arrays.fill(faceMaxVtx, length, faceMaxVtx.length, -1);
+    }
+    vtxFace[vtx] = face;
+    vtxDist[vtx] = dist;
+    int outside = mesh.outside(face);
+    if (outside < 0) {
+      claimed.add(vtx);
+      faceDistStamp[face] = mesh.planeStamp(face);
+    } else
+      claimed.insertBefore(vtx, outside);
+    mesh.setOutside(face, vtx);
+    if (eyeStrategy == EyeStrategy.FARTHEST)
+      updateFarthest(face, vtx);
+  }
+
+  /** Recomputes the distances of the outside points of the given face
+   * if the plane of the face has changed since, due to a merge.
+   *
+   * @param face */
+  private void updateDistances(int face) {
+    int planeStamp = mesh.planeStamp(face);
+    if (faceDistStamp[face] != planeStamp) {
+      for (int vtx = mesh.outside(face); 0 <= vtx && vtxFace[vtx] == face; vtx = vtxNext[vtx])
+        vtxDist[vtx] = mesh.distanceToPlane(face, vtx);
+      faceDistStamp[face] = planeStamp;
+    }
+  }
+
+  /** Pushes the face onto the heap if the given point is farther from the face
+   * than the farthest point of the outside set so far.
+   *
+   * @param face
+   * @param vtx in the outside set of face */
+  private void updateFarthest(int face, int vtx) {
+    double dist = vtxDist[vtx];
+    if (faceMaxVtx[face] < 0 || faceMaxDist[face] < dist) {
+      faceMaxVtx[face] = vtx;
+      faceMaxDist[face] = dist;
+      faceHeap.push(face, dist);
+    }
+  }
+
+  /** Entries of the heap are obsolete if the face has lost its outside set,
+   * or if a farther point has been assigned to the face since. If the plane
+   * of a face has changed due to a merge, the farthest point of the face is
+   * determined anew.
+   *
+   * @return face with the farthest outside point, which is removed from the heap,
+   * or -1 if the heap is empty */
+  private int pollFarthestFace() {
+    while (!faceHeap.isEmpty()) {
+      int face = faceHeap.face();
+      double key = faceHeap.key();
+      faceHeap.pop();
+      if (0 <= faceMaxVtx[face] && faceMaxDist[face] == key) {
+        if (faceDistStamp[face] == mesh.planeStamp(face))
+          return face;
+        updateDistances(face);
+        faceMaxVtx[face] = -1;
+        for (int vtx = mesh.outside(face); 0 <= vtx && vtxFace[vtx] == face; vtx = vtxNext[vtx])
+          updateFarthest(face, vtx);
+      }
+    }
+    return -1;
+  }
+
+  private void removePointFromFace(int vtx, int face) {
+    if (vtx == mesh.outside(face))
+      if (0 <= vtxNext[vtx] && vtxFace[vtxNext[vtx]] == face)
+        mesh.setOutside(face, vtxNext[vtx]);
+      else
+        mesh.setOutside(face, -1);
+    claimed.delete(vtx);
+  }
+
+  private int removeAllPointsFromFace(int face) {
+    if (face < faceMaxVtx.length)
+      faceMaxVtx[face] = -1;
+    int outside = mesh.outside(face);
+    if (0 <= outside) {
+      int end = outside;
+      while (0 <= vtxNext[end] && vtxFace[vtxNext[end]] == face)
+        end = vtxNext[end];
+      claimed.delete(outside, end);
+      vtxNext[end] = -1;
+      mesh.setOutside(face, -1);
+      return outside;
+    }
+    return -1;
+  }
+
+  /** @return number of chunks into which a pass over all input points is divided */
+  private int chunks() {
+    return parallel && PARALLEL_THRESHOLD <= numPoints() //
+        ? (numPoints() + CHUNK_SIZE - 1) / CHUNK_SIZE
+        : 1;
+  }
+
+  /** @param chunks
+   * @param chunk index
+   * @return index after the last point of given chunk */
+  private int chunkEnd(int chunks, int chunk) {
+    return chunks == 1 //
+        ? numPoints()
+        : Math.min(numPoints(), (chunk + 1) * CHUNK_SIZE);
+  }
+
+  /** @param chunks
+   * @param intConsumer is invoked with each chunk index, in parallel if there is more than one chunk */
+  private static void forEachChunk(int chunks, IntConsumer intConsumer) {
+    if (chunks == 1)
+      intConsumer.accept(0);
+    else
+      IntStream.range(0, chunks).parallel().forEach(intConsumer);
+  }
+
+  /** @param length
+   * @return buffer of at least given length for the results of the chunks */
+  private int[] chunkBuffer(int length) {
+    if (chunkBuffer.length < length)
+      chunkBuffer = new int[length];
+    return chunkBuffer;
+  }
+
+  /** The extreme points along each axis are computed per chunk. The results
+   * of the chunks are combined in the order of the chunks, so that ties are
+   * resolved in favor of the lowest index exactly as in a single pass. */
+  private void computeMaxAndMin() {
+    int chunks = chunks();
+    int[] extrema = chunkBuffer(6 * chunks);
+    forEachChunk(chunks, chunk -> computeMaxAndMin( //
+        chunk * CHUNK_SIZE, //
+        chunkEnd(chunks, chunk), //
+        extrema, 6 * chunk));
+    for (int i = 0; i < 3; i++) {
+      maxVtxs[i] = extrema[i];
+      minVtxs[i] = extrema[3 + i];
+    }
+    for (int chunk = 1; chunk < chunks; ++chunk)
+      for (int i = 0; i < 3; i++) {
+        int max = extrema[6 * chunk + i];
+        if (coord(maxVtxs[i], i) < coord(max, i))
+          maxVtxs[i] = max;
+        int min = extrema[6 * chunk + 3 + i];
+        if (coord(min, i) < coord(minVtxs[i], i))
+          minVtxs[i] = min;
+      }
+    double maxx = points.x(maxVtxs[0]);
+    double maxy = points.y(maxVtxs[1]);
+    double maxz = points.z(maxVtxs[2]);
+    double minx = points.x(minVtxs[0]);
+    double miny = points.y(minVtxs[1]);
+    double minz = points.z(minVtxs[2]);
+    // this epsilon formula comes from QuickHull, and I'm
+    // not about to quibble.
+    tolerance = explicitTolerance == AUTOMATIC_TOLERANCE //
+        ? 3 * DOUBLE_PREC * ( //
+        Math.max(Math.abs(maxx), Math.abs(minx)) + //
+            Math.max(Math.abs(maxy), Math.abs(miny)) + //
+            Math.max(Math.abs(maxz), Math.abs(minz)))
+        : explicitTolerance;
+  }
+
+  /** @param begin index of first point
+   * @param end index after last point, greater than begin
+   * @param dest receives the indices of the points with maximal x, y, z,
+   * followed by the indices of the points with minimal x, y, z
+   * @param offset into dest */
+  private void computeMaxAndMin(int begin, int end, int[] dest, int offset) {
+    int maxVtx0 = begin;
+    int maxVtx1 = begin;
+    int maxVtx2 = begin;
+    int minVtx0 = begin;
+    int minVtx1 = begin;
+    int minVtx2 = begin;
+    double maxx = points.x(begin);
+    double maxy = points.y(begin);
+    double maxz = points.z(begin);
+    double minx = points.x(begin);
+    double miny = points.y(begin);
+    double minz = points.z(begin);
+    for (int i = begin + 1; i < end; i++) {
+      if (maxx < points.x(i)) {
+        maxx = points.x(i);
+        maxVtx0 = i;
+      } else if (points.x(i) < minx) {
+        minx = points.x(i);
+        minVtx0 = i;
+      }
+      if (maxy < points.y(i)) {
+        maxy = points.y(i);
+        maxVtx1 = i;
+      } else if (points.y(i) < miny) {
+        miny = points.y(i);
+        minVtx1 = i;
+      }
+      if (maxz < points.z(i)) {
+        maxz = points.z(i);
+        maxVtx2 = i;
+      } else if (points.z(i) < minz) {
+        minz = points.z(i);
+        minVtx2 = i;
+      }
+    }
+    dest[offset] = maxVtx0;
+    dest[offset + 1] = maxVtx1;
+    dest[offset + 2] = maxVtx2;
+    dest[offset + 3] = minVtx0;
+    dest[offset + 4] = minVtx1;
+    dest[offset + 5] = minVtx2;
+  }
+
+  /** @param function that is non-negative for all points
+   * @return lowest index among the points with maximal value of given function,
+   * or -1 if the function evaluates to zero for all points */
+  private int argMax(IntToDoubleFunction function) {
+    int chunks = chunks();
+    int[] argMax = chunkBuffer(chunks);
+    forEachChunk(chunks, chunk -> {
+      int end = chunkEnd(chunks, chunk);
+      double max = 0;
+      int best = -1;
+      for (int i = chunk * CHUNK_SIZE; i < end; ++i) {
+        double value = function.applyAsDouble(i);
+        if (max < value) {
+          max = value;
+          best = i;
+        }
+      }
+      argMax[chunk] = best;
+    });
+    double max = 0;
+    int best = -1;
+    for (int chunk = 0; chunk < chunks; ++chunk) {
+      int i = argMax[chunk];
+      if (0 <= i) {
+        double value = function.applyAsDouble(i);
+        if (max < value) {
+          max = value;
+          best = i;
+        }
+      }
+    }
+    return best;
+  }
+
+  /** @return index of point other than v0 and v1 with the greatest distance
+   * from the line through v0 in direction u, or -1 */
+  private int farthestFromLine(int v0, int v1, double ux, double uy, double uz) {
+    return argMax(i -> {
+      if (i == v0 || i == v1) // paranoid
+        return 0;
+      double dx = points.x(i) - points.x(v0);
+      double dy = points.y(i) - points.y(v0);
+      double dz = points.z(i) - points.z(v0);
+      double xx = uy * dz - uz * dy;
+      double xy = uz * dx - ux * dz;
+      double xz = ux * dy - uy * dx;
+      return xx * xx + xy * xy + xz * xz;
+    });
+  }
+
+  /** @return index of point other than vtx[0], vtx[1], vtx[2] with the greatest
+   * distance from the plane with normal n and offset d0, or -1 */
+  private int farthestFromPlane(int[] vtx, double nx, double ny, double nz, double d0) {
+    return argMax(i -> i == vtx[0] || i == vtx[1] || i == vtx[2] // paranoid
+        ? 0
+        : Math.abs(points.x(i) * nx + points.y(i) * ny + points.z(i) * nz - d0));
+  }
+
+  private double coord(int vertex, int i) {
+    return switch (i) {
+    case 0 -> points.x(vertex);
+    case 1 -> points.y(vertex);
+    default -> points.z(vertex);
+    };
+  }
+
+  /** Creates the initial simplex from which the hull will be built. */
+  private void createInitialSimplex() throws IllegalArgumentException {
+    double max = 0;
+    int imax = 0;
+    for (int i = 0; i < 3; i++) {
+      double diff = coord(maxVtxs[i], i) - coord(minVtxs[i], i);
+      if (max < diff) {
+        max = diff;
+        imax = i;
+      }
+    }
+    if (max <= tolerance)
+      throw new IllegalArgumentException("Input points appear to be coincident");
+    int[] vtx = new int[4];
+    // set first two vertices to be those with the greatest
+    // one dimensional separation
+    vtx[0] = maxVtxs[imax];
+    vtx[1] = minVtxs[imax];
+    // set third vertex to be the vertex farthest from
+    // the line between vtx0 and vtx1
+    double ux = points.x(vtx[1]) - points.x(vtx[0]);
+    double uy = points.y(vtx[1]) - points.y(vtx[0]);
+    double uz = points.z(vtx[1]) - points.z(vtx[0]);
+    // normalization as by Vector2Norm.NORMALIZE in QuickHull3D
+    double ul = 1 / StaticHelper.norm(ux, uy, uz);
+    ux *= ul;
+    uy *= ul;
+    uz *= ul;
+    double nx = 0;
+    double ny = 0;
+    double nz = 0;
+    double maxSqr = 0;
+    int farthest = farthestFromLine(vtx[0], vtx[1], ux, uy, uz);
+    if (0 <= farthest) {
+      vtx[2] = farthest;
+      double dx = points.x(farthest) - points.x(vtx[0]);
+      double dy = points.y(farthest) - points.y(vtx[0]);
+      double dz = points.z(farthest) - points.z(vtx[0]);
+      nx = uy * dz - uz * dy;
+      ny = uz * dx - ux * dz;
+      nz = ux * dy - uy * dx;
+      maxSqr = nx * nx + ny * ny + nz * nz;
+    }
+    if (Math.sqrt(maxSqr) <= 100 * tolerance)
+      throw new IllegalArgumentException("Input points appear to be colinear");
+    double nl = 1 / StaticHelper.norm(nx, ny, nz);
+    nx *= nl;
+    ny *= nl;
+    nz *= nl;
+    // recompute nrml to make sure it is normal to u10 - otherwise could
+    // be errors in case vtx[2] is close to u10
+    double dot = nx * ux + ny * uy + nz * uz; // component of nrml along u01
+    nx -= dot * ux;
+    ny -= dot * uy;
+    nz -= dot * uz;
+    nl = 1 / StaticHelper.norm(nx, ny, nz);
+    nx *= nl;
+    ny *= nl;
+    nz *= nl;
+    double maxDist = 0;
+    double d0 = points.x(vtx[2]) * nx + points.y(vtx[2]) * ny + points.z(vtx[2]) * nz;
+    farthest = farthestFromPlane(vtx, nx, ny, nz, d0);
+    if (0 <= farthest) {
+      vtx[3] = farthest;
+      maxDist = Math.abs(points.x(farthest) * nx + points.y(farthest) * ny + points.z(farthest) * nz - d0);
+    }
+    if (maxDist <= 100 * tolerance)
+      throw new IllegalArgumentException("Input points appear to be coplanar");
+    if (debug) {
+      System.out.println("initial vertices:");
+      for (int vertex : vtx)
+        System.out.println(vertex + ": " + points.x(vertex) + " " + points.y(vertex) + " " + points.z(vertex));
+    }
+    int[] tris = new int[4];
+    if (points.x(vtx[3]) * nx + points.y(vtx[3]) * ny + points.z(vtx[3]) * nz < d0) {
+      tris[0] = mesh.createTriangle(vtx[0], vtx[1], vtx[2]);
+      tris[1] = mesh.createTriangle(vtx[3], vtx[1], vtx[0]);
+      tris[2] = mesh.createTriangle(vtx[3], vtx[2], vtx[1]);
+      tris[3] = mesh.createTriangle(vtx[3], vtx[0], vtx[2]);
+      for (int i = 0; i < 3; i++) {
+        int k = (i + 1) % 3;
+        mesh.setOpposite(mesh.getEdge(tris[i + 1], 1), mesh.getEdge(tris[k + 1], 0));
+        mesh.setOpposite(mesh.getEdge(tris[i + 1], 2), mesh.getEdge(tris[0], k));
+      }
+    } else {
+      tris[0] = mesh.createTriangle(vtx[0], vtx[2], vtx[1]);
+      tris[1] = mesh.createTriangle(vtx[3], vtx[0], vtx[1]);
+      tris[2] = mesh.createTriangle(vtx[3], vtx[1], vtx[2]);
+      tris[3] = mesh.createTriangle(vtx[3], vtx[2], vtx[0]);
+      for (int i = 0; i < 3; i++) {
+        int k = (i + 1) % 3;
+        mesh.setOpposite(mesh.getEdge(tris[i + 1], 0), mesh.getEdge(tris[k + 1], 1));
+        mesh.setOpposite(mesh.getEdge(tris[i + 1], 2), mesh.getEdge(tris[0], (3 - i) % 3));
+      }
+    }
+    if (robust)
+      for (int face : tris)
+        setFilterBound(face);
+    Arrays.fill(interior, 0);
+    for (int vertex : vtx) {
+      interior[0] += points.x(vertex) / 4;
+      interior[1] += points.y(vertex) / 4;
+      interior[2] += points.z(vertex) / 4;
+    }
+    // the best face of each point is determined independently and stored
+    // temporarily in vtxFace; the outside sets are linked in the order of
+    // the points, so that the result does not depend on the evaluation order
+    IntStream intStream = IntStream.range(0, numPoints());
+    if (parallel && PARALLEL_THRESHOLD <= numPoints())
+      intStream = intStream.parallel();
+    intStream.forEach(i -> vtxFace[i] = i == vtx[0] || i == vtx[1] || i == vtx[2] || i == vtx[3] //
+        ? -1
+        : isCulled(i) //
+            ? CULLED
+            : maxFace(tris, i));
+    numCulled = 0;
+    for (int i = 0; i < numPoints(); i++)
+      if (0 <= vtxFace[i])
+        addPointToFace(i, vtxFace[i], vtxDist[i]);
+      else //
+      if (vtxFace[i] == CULLED)
+        ++numCulled;
+  }
+
+  /** Akl-Toussaint heuristic: the points that are extreme along the
+   * coordinate axes and along the diagonals span a polytope that is
+   * contained in the hull. The planes of the polytope are used to
+   * discard the points in its interior before they are assigned to
+   * outside sets. */
+  private void computeCullPlanes() {
+    numCullPlanes = 0;
+    if (!prefilter || robust)
+      return;
+    int chunks = chunks();
+    int[] extrema = chunkBuffer(8 * chunks);
+    forEachChunk(chunks, chunk -> computeDiagonalExtrema(chunk * CHUNK_SIZE, chunkEnd(chunks, chunk), extrema, 8 * chunk));
+    int[] vertices = new int[14];
+    for (int k = 0; k < 8; ++k)
+      vertices[k] = extrema[k];
+    for (int chunk = 1; chunk < chunks; ++chunk)
+      for (int k = 0; k < 4; ++k) {
+        int max = extrema[8 * chunk + k];
+        if (diagonal(vertices[k], k) < diagonal(max, k))
+          vertices[k] = max;
+        int min = extrema[8 * chunk + 4 + k];
+        if (diagonal(min, k) < diagonal(vertices[4 + k], k))
+          vertices[4 + k] = min;
+      }
+    System.arraycopy(maxVtxs, 0, vertices, 8, 3);
+    System.arraycopy(minVtxs, 0, vertices, 11, 3);
+    int[] distinct = Arrays.stream(vertices).distinct().toArray();
+    if (distinct.length < 4)
+      return;
+    double[] coords = new double[distinct.length * 3];
+    for (int k = 0; k < distinct.length; ++k) {
+      coords[3 * k] = points.x(distinct[k]);
+      coords[3 * k + 1] = points.y(distinct[k]);
+      coords[3 * k + 2] = points.z(distinct[k]);
+    }
+    DoubleQuickHull3D polytope = new DoubleQuickHull3D(coords);
+    polytope.setExplicitDistanceTolerance(tolerance);
+    polytope.setParallel(false);
+    try {
+      polytope.buildHull();
+    } catch (IllegalArgumentException illegalArgumentException) {
+      // extreme points are coplanar
+      return;
+    }
+    cullPlanes = polytope.getPlanes();
+    numCullPlanes = cullPlanes.length / 4;
+  }
+
+  /** @param vertex
+   * @param k in the range 0, 1, 2, 3
+   * @return projection of given vertex onto the diagonal direction with index k */
+  private double diagonal(int vertex, int k) {
+    double px = points.x(vertex);
+    double py = points.y(vertex);
+    double pz = points.z(vertex);
+    return switch (k) {
+    case 0 -> px + py + pz;
+    case 1 -> px + py - pz;
+    case 2 -> px - py + pz;
+    default -> -px + py + pz;
+    };
+  }
+
+  /** @param begin index of first point
+   * @param end index after last point, greater than begin
+   * @param dest receives the indices of the points with maximal projection onto
+   * the diagonal directions 0, 1, 2, 3, followed by the indices of the points
+   * with minimal projection
+   * @param offset into dest */
+  private void computeDiagonalExtrema(int begin, int end, int[] dest, int offset) {
+    double[] max = new double[4];
+    double[] min = new double[4];
+    for (int k = 0; k < 4; ++k) {
+      dest[offset + k] = dest[offset + 4 + k] = begin;
+      max[k] = min[k] = diagonal(begin, k);
+    }
+    for (int i = begin + 1; i < end; i++)
+      for (int k = 0; k < 4; ++k) {
+        double value = diagonal(i, k);
+        if (max[k] < value) {
+          max[k] = value;
+          dest[offset + k] = i;
+        } else if (value < min[k]) {
+          min[k] = value;
+          dest[offset + 4 + k] = i;
+        }
+      }
+  }
+
+  /** @param vertex
+   * @return whether given vertex is in the interior of the polytope of
+   * the prefilter by a margin of 10 times the distance tolerance */
+  private boolean isCulled(int vertex) {
+    if (numCullPlanes == 0)
+      return false;
+    double px = points.x(vertex);
+    double py = points.y(vertex);
+    double pz = points.z(vertex);
+    double margin = -10 * tolerance;
+    for (int j = 0; j < numCullPlanes * 4; j += 4)
+      if (margin <= cullPlanes[j] * px + cullPlanes[j + 1] * py + cullPlanes[j + 2] * pz - cullPlanes[j + 3])
+        return false;
+    return true;
+  }
+
+  /** @param tris candidate faces
+   * @param vertex
+   * @return face in tris with the greatest distance of the vertex above its plane
+   * beyond the tolerance, or -1 if there is no such face; the distance is stored in vtxDist */
+  private int maxFace(int[] tris, int vertex) {
+    double maxDist = minDistance();
+    int maxFace = -1;
+    for (int face : tris) {
+      double dist = mesh.distanceToPlane(face, vertex);
+      if (maxDist < dist && isAbove(face, vertex, dist)) {
+        maxFace = face;
+        maxDist = dist;
+      }
+    }
+    vtxDist[vertex] = maxDist;
+    return maxFace;
+  }
+
+  /** Returns the faces associated with this hull.
+   *
+   * <p>Each face is represented by an integer array which gives the indices of
+   * the vertices. The indices are numbered with respect to the input points,
+   * are zero-based, and are arranged counter-clockwise.
+   *
+   * @return list of integer arrays, giving the vertex indices for each face */
+  public List<int[]> getFaces() {
+    List<int[]> list = new ArrayList<>();
+    for (int face = mesh.firstFace(); 0 <= face; face = mesh.nextFace(face))
+      list.add(mesh.getIndices(face));
+    return list;
+  }
+
+  /** A face with k vertices contributes k - 2 triangles. The count is
+   * maintained by the mesh during the construction of the hull.
+   *
+   * @return number of triangles of {@link #getTriangles()} */
+  public int getNumTriangles() {
+    return mesh.numHalfEdges() - 2 * mesh.numFaces();
+  }
+
+  /** Each face of the hull is triangulated as a fan around its first vertex.
+   * The triangles are emitted directly from the half-edges of the faces,
+   * the hull itself is not modified.
+   *
+   * <p>Triangulating a merged face may result in triangles which are very
+   * small or thin, see {@link QuickHull3D}.
+   *
+   * @return vertex indices of {@link #getNumTriangles()} triangles, three
+   * consecutive entries per triangle in counter-clockwise order, with the
+   * triangles of each face in the order of {@link #getFaces()} */
+  public int[] getTriangles() {
+    int[] triangles = new int[3 * getNumTriangles()];
+    int index = 0;
+    for (int face = mesh.firstFace(); 0 <= face; face = mesh.nextFace(face)) {
+      int he0 = mesh.he0(face);
+      int v0 = mesh.head(he0);
+      for (int he = mesh.next(he0); mesh.next(he) != he0; he = mesh.next(he)) {
+        triangles[index++] = v0;
+        triangles[index++] = mesh.head(he);
+        triangles[index++] = mesh.head(mesh.next(he));
+      }
+    }
+    return triangles;
+  }
+
+  /** The faces are copied from the mesh into the two arrays of the result
+   * without an array per face.
+   *
+   * @return faces in the order and format of {@link #getFaces()} */
+  public HullFaces getHullFaces() {
+    int numFaces = 0;
+    int numIndices = 0;
+    for (int face = mesh.firstFace(); 0 <= face; face = mesh.nextFace(face)) {
+      ++numFaces;
+      numIndices += mesh.numVertices(face);
+    }
+    int[] offsets = new int[numFaces + 1];
+    int[] indices = new int[numIndices];
+    int index = 0;
+    int offset = 0;
+    for (int face = mesh.firstFace(); 0 <= face; face = mesh.nextFace(face)) {
+      int he0 = mesh.he0(face);
+      int he = he0;
+      do {
+        indices[offset++] = mesh.head(he);
+        he = mesh.next(he);
+      } while (he != he0);
+      offsets[++index] = offset;
+    }
+    return new HullFaces(offsets, indices);
+  }
+
+  /** @return plane coefficients {nx, ny, nz, offset} of each face in the order
+   * of {@link #getFaces()}, so that the distance of a point p above face k is
+   * nx * px + ny * py + nz * pz - offset */
+  double[] getPlanes() {
+    int count = 0;
+    for (int face = mesh.firstFace(); 0 <= face; face = mesh.nextFace(face))
+      ++count;
+    double[] planes = new double[count * 4];
+    int offset = 0;
+    for (int face = mesh.firstFace(); 0 <= face; face = mesh.nextFace(face)) {
+      mesh.getPlane(face, planes, offset);
+      offset += 4;
+    }
+    return planes;
+  }
+
+  /** @return faces in the format {numFaces, numVerts_0, indices_0..., numVerts_1, indices_1...}
+   * with the faces in the order of {@link #getFaces()} */
+  int[] getPackedFaces() {
+    IntList intList = new IntList();
+    intList.add(0);
+    for (int face = mesh.firstFace(); 0 <= face; face = mesh.nextFace(face)) {
+      intList.set(0, intList.get(0) + 1);
+      intList.add(mesh.numVertices(face));
+      int he0 = mesh.he0(face);
+      int he = he0;
+      do {
+        intList.add(mesh.head(he));
+        he = mesh.next(he);
+      } while (he != he0);
+    }
+    return intList.toArray();
+  }
+
+  /** @return indices of the input points that are vertices of the hull in ascending order */
+  public int[] getVertexIndices() {
+    boolean[] onHull = new boolean[numPoints()];
+    for (int face = mesh.firstFace(); 0 <= face; face = mesh.nextFace(face)) {
+      int he0 = mesh.he0(face);
+      int he = he0;
+      do {
+        onHull[mesh.head(he)] = true;
+        he = mesh.next(he);
+      } while (he != he0);
+    }
+    return IntStream.range(0, onHull.length).filter(i -> onHull[i]).toArray();
+  }
+
+  /** Only the vertices of the hull are materialized.
+   *
+   * @return coordinates {x, y, z} of the vertices of the hull in the order of
+   * {@link #getVertexIndices()} */
+  public double[][] getVertices() {
+    return Arrays.stream(getVertexIndices()) //
+        .mapToObj(i -> new double[] { points.x(i), points.y(i), points.z(i) }) //
+        .toArray(double[][]::new);
+  }
+
+  /** The points of the faces that have been removed from the hull are
+   * assigned to the new faces by {@link #maxNewFace(int)} as in QuickHull3D.
+   * If there are many new faces, each point is first located by a walk as in
+   * {@link #addPoints(double[])}, which is confined to the new faces, i.e. the
+   * faces that contain the eye point. A point below the located face beyond
+   * the tolerance is inside the hull, and thereby not above any new face, so
+   * that the point is discarded without the scan of all new faces. Most of
+   * the points of a large cone are discarded. The other points are assigned
+   * by the scan, which depends on the order of the new faces, so that the
+   * outside sets are the same as in QuickHull3D.
+   *
+   * @param eyeVtx */
+  private void resolveUnclaimedPoints(int eyeVtx) {
+    orphans.clear();
+    for (int vtx = unclaimed.first(); 0 <= vtx; vtx = vtxNext[vtx])
+      orphans.add(vtx);
+    // the new face of each point is determined independently and stored
+    // temporarily in vtxFace; the points are added to the outside sets
+    // in the order of the list of unclaimed points
+    if (newFaces.size() < LOCATE_THRESHOLD) {
+      IntStream intStream = IntStream.range(0, orphans.size());
+      if (parallel && RESOLVE_THRESHOLD <= orphans.size())
+        intStream = intStream.parallel();
+      intStream.forEach(index -> {
+        int vtx = orphans.get(index);
+        vtxFace[vtx] = maxNewFace(vtx);
+      });
+    } else {
+      // the points of a removed face are consecutive in the list of orphans,
+      // the walk of each point starts at the face located for the preceding
+      // point, and the walk of the first point of a chunk at a new face
+      int newFace = firstNewFace();
+      int chunks = (orphans.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+      IntConsumer intConsumer = chunk -> {
+        int face = newFace;
+        for (int index = chunk * CHUNK_SIZE; index < Math.min(orphans.size(), (chunk + 1) * CHUNK_SIZE); ++index) {
+          int vtx = orphans.get(index);
+          int hit = locate(vtx, face, eyeVtx);
+          if (hit < 0)
+            vtxFace[vtx] = maxNewFace(vtx);
+          else {
+            double dist = mesh.distanceToPlane(hit, vtx);
+            vtxFace[vtx] = !isAbove(hit, vtx, dist) && (robust || dist < -tolerance) //
+                ? -1
+                : maxNewFace(vtx);
+            face = hit;
+          }
+        }
+      };
+      if (parallel && RESOLVE_THRESHOLD <= orphans.size())
+        IntStream.range(0, chunks).parallel().forEach(intConsumer);
+      else
+        IntStream.range(0, chunks).forEach(intConsumer);
+    }
+    for (int index = 0; index < orphans.size(); ++index) {
+      int vtx = orphans.get(index);
+      int maxFace = vtxFace[vtx];
+      if (0 <= maxFace) {
+        addPointToFace(vtx, maxFace, vtxDist[vtx]);
+        if (debug)
+          System.out.println("CLAIMED BY " + mesh.getVertexString(maxFace));
+      } else //
+      if (debug)
+        System.out.println("DISCARDED");
+    }
+  }
+
+  /** @return first new face that has not been merged into another face */
+  private int firstNewFace() {
+    for (int index = 0; index < newFaces.size(); ++index) {
+      int newFace = newFaces.get(index);
+      if (mesh.mark(newFace) == HalfEdgeMesh.VISIBLE)
+        return newFace;
+    }
+    throw new IllegalStateException("no new face");
+  }
+
+  /** @param vtx
+   * @return new face above which given point is farthest beyond the tolerance,
+   * or -1 if there is no such face; the distance is stored in vtxDist */
+  private int maxNewFace(int vtx) {
+    double maxDist = minDistance();
+    int maxFace = -1;
+    for (int index = 0; index < newFaces.size(); ++index) {
+      int newFace = newFaces.get(index);
+      if (mesh.mark(newFace) == HalfEdgeMesh.VISIBLE) {
+        double dist = mesh.distanceToPlane(newFace, vtx);
+        if (maxDist < dist && isAbove(newFace, vtx, dist)) {
+          maxDist = dist;
+          maxFace = newFace;
+        }
+        if (maxDist > 1000 * tolerance)
+          break;
+      }
+    }
+    vtxDist[vtx] = maxDist;
+    return maxFace;
+  }
+
+  /** @param face
+   * @param absorbingFace, or -1 */
+  private void deleteFacePoints(int face, int absorbingFace) {
+    int faceVtxs = removeAllPointsFromFace(face);
+    if (0 <= faceVtxs)
+      if (absorbingFace < 0)
+        unclaimed.addAll(faceVtxs);
+      else {
+        int vtxNext = faceVtxs;
+        for (int vtx = vtxNext; 0 <= vtx; vtx = vtxNext) {
+          vtxNext = this.vtxNext[vtx];
+          double dist = mesh.distanceToPlane(absorbingFace, vtx);
+          if (isAbove(absorbingFace, vtx, dist))
+            addPointToFace(vtx, absorbingFace, dist);
+          else
+            unclaimed.add(vtx);
+        }
+      }
+  }
+
+  /** The distance is cached per half-edge together with the plane stamps of
+   * both faces, and is recomputed only if the plane or centroid of either
+   * face has changed since. During the merge passes, each edge is tested
+   * from both of its faces, and again in the second pass; the tests of edges
+   * whose faces are unchanged reuse the cache.
+   *
+   * @param he
+   * @return distance of the centroid of the opposite face of the half-edge
+   * above the plane of the face of the half-edge */
+  private double oppFaceDistance(int he) {
+    int face = mesh.face(he);
+    int oppFace = mesh.oppositeFace(he);
+    int faceStamp = mesh.planeStamp(face);
+    int oppStamp = mesh.planeStamp(oppFace);
+    if (heOppDist.length <= he) {
+      int capacity = Math.max(he + 1, heOppDist.length * 2);
+      heOppDist = Arrays.copyOf(heOppDist, capacity);
+      heFaceStamp = Arrays.copyOf(heFaceStamp, capacity);
+      heOppStamp = Arrays.copyOf(heOppStamp, capacity);
+    }
+    if (heFaceStamp[he] != faceStamp || heOppStamp[he] != oppStamp) {
+      heOppDist[he] = mesh.distanceToCentroid(face, oppFace);
+      heFaceStamp[he] = faceStamp;
+      heOppStamp[he] = oppStamp;
+    }
+    return heOppDist[he];
+  }
+
+  /** @param face
+   * @param hedge of face
+   * @param mergeType
+   * @return whether the opposite face of the half-edge is to be merged into the face */
+  private boolean isMerge(int face, int hedge, MergeType mergeType) {
+    if (mergeType.equals(MergeType.NONCONVEX)) // then merge faces if they are definitively non-convex
+      return oppFaceDistance(hedge) > -tolerance || oppFaceDistance(mesh.opposite(hedge)) > -tolerance;
+    // NONCONVEX_WRT_LARGER_FACE
+    // merge faces if they are parallel or non-convex
+    // wrt to the larger face
+    return mesh.area(mesh.oppositeFace(hedge)) < mesh.area(face) //
+        ? oppFaceDistance(hedge) > -tolerance
+        : oppFaceDistance(mesh.opposite(hedge)) > -tolerance;
+  }
+
+  private void mergeAdjacentFace(int face, int hedge) {
+    if (debug)
+      System.out.println("  merging " + mesh.getVertexString(face) + "  and  " + mesh.getVertexString(mesh.oppositeFace(hedge)));
+    numMerges++;
+    discarded.clear();
+    mesh.mergeAdjacentFace(hedge, discarded, worklist, validation);
+    for (int index = 0; index < discarded.size(); ++index)
+      deleteFacePoints(discarded.get(index), face);
+    if (debug)
+      System.out.println("  result: " + mesh.getVertexString(face));
+  }
+
+  /** Merges the face with its neighbours until no edge of the face qualifies
+   * for a merge, see {@link #setWorklistMerge(boolean)}.
+   *
+   * @param face
+   * @param mergeType */
+  private void doAdjacentMerges(int face, MergeType mergeType) {
+    worklist.clear();
+    if (worklistMerge)
+      doWorklistMerges(face, mergeType);
+    else
+      while (doAdjacentMerge(face, mergeType))
+        // the restarted scan does not need the joined edges
+        worklist.clear();
+  }
+
+  /** The worklist initially holds all edges of the face, and grows by the
+   * edges joined by each merge. An edge that is tested and not merged marks
+   * the face non-convex for the second pass as in {@link #doAdjacentMerge(int, MergeType)}.
+   *
+   * @param face
+   * @param mergeType */
+  private void doWorklistMerges(int face, MergeType mergeType) {
+    int hedge = mesh.he0(face);
+    do {
+      worklist.add(hedge);
+      hedge = mesh.next(hedge);
+    } while (hedge != mesh.he0(face));
+    boolean convex = true;
+    // the worklist grows during the iteration
+    for (int index = 0; index < worklist.size(); ++index) {
+      int edge = worklist.get(index);
+      // half-edges released by a merge have face -1
+      if (mesh.face(edge) == face) {
+        if (isMerge(face, edge, mergeType))
+          mergeAdjacentFace(face, edge);
+        else if (mergeType.equals(MergeType.NONCONVEX_WRT_LARGER_FACE) && //
+            (oppFaceDistance(edge) > -tolerance || oppFaceDistance(mesh.opposite(edge)) > -tolerance))
+          convex = false;
+      }
+    }
+    worklist.clear();
+    if (!convex)
+      mesh.setMark(face, HalfEdgeMesh.NON_CONVEX);
+  }
+
+  /** @param face
+   * @param mergeType
+   * @return whether a merge of the face with a neighbour took place */
+  private boolean doAdjacentMerge(int face, MergeType mergeType) {
+    int hedge = mesh.he0(face);
+    boolean convex = true;
+    do {
+      if (isMerge(face, hedge, mergeType)) {
+        mergeAdjacentFace(face, hedge);
+        return true;
+      }
+      // the face is marked non-convex for the second pass
+      if (mergeType.equals(MergeType.NONCONVEX_WRT_LARGER_FACE) && //
+          (oppFaceDistance(hedge) > -tolerance || oppFaceDistance(mesh.opposite(hedge)) > -tolerance))
+        convex = false;
+      hedge = mesh.next(hedge);
+    } while (hedge != mesh.he0(face));
+    if (!convex)
+      mesh.setMark(face, HalfEdgeMesh.NON_CONVEX);
+    return false;
+  }
+
+  /** Depth-first search of the faces visible from the eye point. Instead of
+   * recursion, the search uses an explicit stack, so that the depth of the
+   * call stack does not depend on the number of visible faces. The faces and
+   * the horizon edges are visited in the same order as by a recursive search.
+   *
+   * @param eyePnt
+   * @param face that is visible from the eye point */
+  private void calculateHorizon(int eyePnt, int face) {
+    horizonStack.clear();
+    visitHorizonFace(-1, face);
+    while (!horizonStack.isEmpty()) {
+      int edge = nextHorizonEdge(horizonStack);
+      int oppFace = mesh.oppositeFace(edge);
+      if (mesh.mark(oppFace) == HalfEdgeMesh.VISIBLE) {
+        if (isAbove(oppFace, eyePnt, mesh.distanceToPlane(oppFace, eyePnt)))
+          visitHorizonFace(mesh.opposite(edge), oppFace);
+        else {
+          horizon.add(edge);
+          if (debug)
+            System.out.println("  adding horizon edge " + mesh.getVertexString2(edge));
+        }
+      }
+    }
+  }
+
+  /** @param edge0 half-edge of face via which the face is entered, or -1
+   * @param face */
+  private void visitHorizonFace(int edge0, int face) {
+    deleteFacePoints(face, -1);
+    mesh.deleteFace(face);
+    if (debug)
+      System.out.println("  visiting face " + mesh.getVertexString(face));
+    pushHorizonFace(horizonStack, edge0, face);
+  }
+
+  /** Pushes the pair of the half-edge at which the traversal of the edges of
+   * given face ends, and the next half-edge to traverse.
+   *
+   * @param stack
+   * @param edge0 half-edge of face via which the face is entered, or -1
+   * @param face */
+  private void pushHorizonFace(IntList stack, int edge0, int face) {
+    if (edge0 < 0) {
+      edge0 = mesh.getEdge(face, 0);
+      stack.add(edge0);
+      stack.add(edge0);
+    } else {
+      stack.add(edge0);
+      stack.add(mesh.next(edge0));
+    }
+  }
+
+  /** @param stack non-empty
+   * @return next half-edge of the face on top of the stack, the face is popped
+   * from the stack if all its half-edges have been traversed */
+  private int nextHorizonEdge(IntList stack) {
+    int edge = stack.removeLast();
+    int next = mesh.next(edge);
+    if (next == stack.get(stack.size() - 1))
+      stack.removeLast();
+    else
+      stack.add(next);
+    return edge;
+  }
+
+  private int addAdjoiningFace(int eyeVtx, int he) {
+    int face = mesh.createTriangle(eyeVtx, mesh.tail(he), mesh.head(he));
+    if (robust)
+      setFilterBound(face);
+    mesh.setOpposite(mesh.getEdge(face, -1), mesh.opposite(he));
+    return mesh.getEdge(face, 0);
+  }
+
+  private void addNewFaces(int eyeVtx) {
+    newFaces.clear();
+    int hedgeSidePrev = -1;
+    int hedgeSideBegin = -1;
+    for (int index = 0; index < horizon.size(); ++index) {
+      int hedgeSide = addAdjoiningFace(eyeVtx, horizon.get(index));
+      if (debug)
+        System.out.println("new face: " + mesh.getVertexString(mesh.face(hedgeSide)));
+      if (0 <= hedgeSidePrev)
+        mesh.setOpposite(mesh.next(hedgeSide), hedgeSidePrev);
+      else
+        hedgeSideBegin = hedgeSide;
+      newFaces.add(mesh.face(hedgeSide));
+      hedgeSidePrev = hedgeSide;
+    }
+    mesh.setOpposite(mesh.next(hedgeSideBegin), hedgeSidePrev);
+  }
+
+  private int nextPointToAdd() {
+    if (eyeStrategy == EyeStrategy.FARTHEST) {
+      int eyeFace = pollFarthestFace();
+      if (0 <= eyeFace)
+        return faceMaxVtx[eyeFace];
+    }
+    int eyeFace = vtxFace[claimed.first()];
+    updateDistances(eyeFace);
+    int eyeVtx = -1;
+    double maxDist = Double.NEGATIVE_INFINITY;
+    for (int vtx = mesh.outside(eyeFace); 0 <= vtx && vtxFace[vtx] == eyeFace; vtx = vtxNext[vtx])
+      if (maxDist < vtxDist[vtx]) {
+        maxDist = vtxDist[vtx];
+        eyeVtx = vtx;
+      }
+    return eyeVtx;
+  }
+
+  private void addPointToHull(int eyeVtx) {
+    horizon.clear();
+    unclaimed.clear();
+    int eyeFace = vtxFace[eyeVtx];
+    if (debug) {
+      System.out.println("Adding point: " + eyeVtx);
+      System.out.println(" which is " + mesh.distanceToPlane(eyeFace, eyeVtx) + " above face " + mesh.getVertexString(eyeFace));
+    }
+    removePointFromFace(eyeVtx, eyeFace);
+    calculateHorizon(eyeVtx, eyeFace);
+    completePointToHull(eyeVtx);
+  }
+
+  /** Second part of the insertion of given point, after the visible faces
+   * have been deleted, and the horizon has been determined.
+   *
+   * @param eyeVtx */
+  private void completePointToHull(int eyeVtx) {
+    vtxFace[eyeVtx] = -1;
+    addNewFaces(eyeVtx);
+    if (!robust)
+      mergeNewFaces();
+    resolveUnclaimedPoints(eyeVtx);
+    // faces removed from the hull are recycled
+    mesh.release();
+  }
+
+  /** merges the new faces with their neighbours across edges that are not
+   * convex with respect to the tolerance */
+  private void mergeNewFaces() {
+    // first merge pass ... merge faces which are non-convex
+    // as determined by the larger face
+    for (int index = 0; index < newFaces.size(); ++index) {
+      int face = newFaces.get(index);
+      if (mesh.mark(face) == HalfEdgeMesh.VISIBLE)
+        doAdjacentMerges(face, MergeType.NONCONVEX_WRT_LARGER_FACE);
+    }
+    // second merge pass ... merge faces which are non-convex wrt either face
+    for (int index = 0; index < newFaces.size(); ++index) {
+      int face = newFaces.get(index);
+      if (mesh.mark(face) == HalfEdgeMesh.NON_CONVEX) {
+        mesh.setMark(face, HalfEdgeMesh.VISIBLE);
+        doAdjacentMerges(face, MergeType.NONCONVEX);
+      }
+    }
+  }
+
+  /** horizon of an eye point that is computed without modification of the
+   * mesh. The buffers are reused by the speculations of subsequent iterations. */
+  private static final class Speculation {
+    private int eyeVtx;
+    private int eyeFace;
+    /** faces visible from the eye point in the order of the depth-first search */
+    private final IntList visible = new IntList();
+    private final IntList horizon = new IntList();
+    /** visible faces and faces adjacent to the horizon */
+    private final IntList region = new IntList();
+    private final IntList versions = new IntList();
+    /** pairs of half-edges of the depth-first search of the horizon */
+    private final IntList stack = new IntList();
+    /** the visible faces carry the current stamp, since the marks of the
+     * faces in the mesh are not modified by concurrent speculations */
+    private int[] faceStamp = new int[0];
+    private int stamp = 0;
+
+    private void reset(int eyeVtx, int eyeFace) {
+      this.eyeVtx = eyeVtx;
+      this.eyeFace = eyeFace;
+      visible.clear();
+      horizon.clear();
+      region.clear();
+      versions.clear();
+      stack.clear();
+      if (++stamp == 0) { // upon overflow
+        Arrays.fill(faceStamp, 0);
+        stamp = 1;
+      }
+    }
+
+    /** @param face
+     * @return whether the face has been marked visible since the last reset */
+    private boolean isVisible(int face) {
+      return face < faceStamp.length && faceStamp[face] == stamp;
+    }
+
+    private void addVisible(int face) {
+      if (faceStamp.length <= face)
+        faceStamp = Arrays.copyOf(faceStamp, Math.max(face + 1, faceStamp.length * 2));
+      faceStamp[face] = stamp;
+      visible.add(face);
+      region.add(face);
+    }
+  }
+
+  /** Selects the farthest points of the first faces with non-empty
+   * outside sets, computes their horizons, and inserts the eye points
+   * into the hull for which the horizon is still valid. */
+  private void addBatchToHull() {
+    IntList eyes = batchEyes;
+    eyes.clear();
+    if (eyeStrategy == EyeStrategy.FARTHEST) {
+      IntList faces = batchFaces;
+      faces.clear();
+      while (faces.size() < eyeBatchSize) {
+        int face = pollFarthestFace();
+        if (face < 0)
+          break;
+        if (!faces.contains(face)) {
+          faces.add(face);
+          eyes.add(faceMaxVtx[face]);
+        }
+      }
+      // the faces remain on the heap in case the speculation is invalid
+      for (int index = 0; index < faces.size(); ++index)
+        faceHeap.push(faces.get(index), faceMaxDist[faces.get(index)]);
+    } else
+      for (int vtx = claimed.first(); 0 <= vtx && eyes.size() < eyeBatchSize;) {
+        int face = vtxFace[vtx];
+        updateDistances(face);
+        int eyeVtx = -1;
+        double maxDist = Double.NEGATIVE_INFINITY;
+        for (; 0 <= vtx && vtxFace[vtx] == face; vtx = vtxNext[vtx])
+          if (maxDist < vtxDist[vtx]) {
+            maxDist = vtxDist[vtx];
+            eyeVtx = vtx;
+          }
+        eyes.add(eyeVtx);
+      }
+    if (speculations.length < eyes.size()) {
+      int length = speculations.length;
+      speculations = Arrays.copyOf(speculations, eyes.size());
+      for (int index = length; index < eyes.size(); ++index)
+        speculations[index] = new Speculation();
+    }
+    IntStream intStream = IntStream.range(0, eyes.size());
+    if (parallel)
+      intStream = intStream.parallel();
+    intStream.forEach(index -> speculate(speculations[index], eyes.get(index)));
+    // the first speculation is always valid
+    for (int slot = 0; slot < eyes.size(); ++slot) {
+      Speculation speculation = speculations[slot];
+      if (isValid(speculation)) {
+        if (debug)
+          System.out.println("Adding point: " + speculation.eyeVtx);
+        horizon.clear();
+        unclaimed.clear();
+        removePointFromFace(speculation.eyeVtx, speculation.eyeFace);
+        for (int index = 0; index < speculation.visible.size(); ++index) {
+          int face = speculation.visible.get(index);
+          deleteFacePoints(face, -1);
+          mesh.deleteFace(face);
+        }
+        horizon.addAll(speculation.horizon);
+        completePointToHull(speculation.eyeVtx);
+      }
+    }
+  }
+
+  /** Computes the horizon of given eye point with respect to the current hull.
+   *
+   * @param speculation that is reset
+   * @param eyeVtx */
+  private void speculate(Speculation speculation, int eyeVtx) {
+    speculation.reset(eyeVtx, vtxFace[eyeVtx]);
+    speculateHorizon(speculation);
+    for (int index = 0; index < speculation.region.size(); ++index)
+      speculation.versions.add(mesh.version(speculation.region.get(index)));
+  }
+
+  /** traverses the faces in the same order as {@link #calculateHorizon(int, int)} */
+  private void speculateHorizon(Speculation speculation) {
+    IntList stack = speculation.stack;
+    speculation.addVisible(speculation.eyeFace);
+    pushHorizonFace(stack, -1, speculation.eyeFace);
+    while (!stack.isEmpty()) {
+      int edge = nextHorizonEdge(stack);
+      int oppFace = mesh.oppositeFace(edge);
+      if (!speculation.isVisible(oppFace)) {
+        if (isAbove(oppFace, speculation.eyeVtx, mesh.distanceToPlane(oppFace, speculation.eyeVtx))) {
+          speculation.addVisible(oppFace);
+          pushHorizonFace(stack, mesh.opposite(edge), oppFace);
+        } else {
+          speculation.horizon.add(edge);
+          speculation.region.add(oppFace);
+        }
+      }
+    }
+  }
+
+  /** @param speculation
+   * @return whether the eye point is still in the outside set of the same face
+   * and none of the faces in the region have been modified since the speculation */
+  private boolean isValid(Speculation speculation) {
+    if (vtxFace[speculation.eyeVtx] != speculation.eyeFace)
+      return false;
+    for (int index = 0; index < speculation.region.size(); ++index)
+      if (mesh.version(speculation.region.get(index)) != speculation.versions.get(index))
+        return false;
+    return true;
+  }
+
+  /** @param face
+   * @param vtx
+   * @param dist of point above the plane of face
+   * @return whether the point is above the face beyond the tolerance, or in
+   * robust mode, whether the point is above the plane through the vertices
+   * of the triangle in exact arithmetic */
+  private boolean isAbove(int face, int vtx, double dist) {
+    if (!robust)
+      return tolerance < dist;
+    // the sign of the distance is correct beyond the error bound
+    double bound = filterBound(face, vtx);
+    if (bound < dist)
+      return true;
+    if (dist < -bound)
+      return false;
+    return 0 < orientation(face, vtx);
+  }
+
+  /** In robust mode, every face is a candidate regardless of the distance,
+   * and {@link #isAbove(int, int, double)} rejects the faces below which the
+   * point is by more than the error bound of the distance without the
+   * evaluation of the orientation.
+   *
+   * @return distance below which a point is not assigned to a face */
+  private double minDistance() {
+    return robust //
+        ? Double.NEGATIVE_INFINITY
+        : tolerance;
+  }
+
+  /** @param k number of floating point operations
+   * @return k u / (1 - k u) */
+  private static double gamma(int k) {
+    double ku = k * DOUBLE_PREC / 2;
+    return ku / (1 - ku);
+  }
+
+  /** The error bound is derived from the floating point evaluation of the
+   * plane of a triangle with vertices a, b, c in {@link HalfEdgeMesh}, with
+   * the unit roundoff u = 2^-53 and gamma(k) = k u / (1 - k u):
+   * <ul>
+   * <li>the cross product s of d1 = b - a and d2 = c - a deviates from the
+   * exact cross product N by e &lt;= gamma(6) P, where P is the sum of the
+   * magnitudes of the six products of the components of d1 and d2,
+   * <li>the unit normal n = s / |s| is evaluated with a relative error of
+   * gamma(8) per component, and the direction s / |s| deviates from N / |N|
+   * by at most 2 e / |s|, so that |n - N / |N|| &lt;= slope,
+   * <li>the centroid g deviates from (a + b + c) / 3 by at most gamma(4) times
+   * the sum of the magnitudes of the vertices, divided by 3,
+   * <li>the offset n.g, and the distance n.p - offset are sums of at most 4
+   * terms, with an error of gamma(4) times the sum of the magnitudes of the terms.
+   * </ul>
+   * Since (a + b + c) / 3 is in the exact plane, the computed distance of a
+   * point p deviates from the exact distance N / |N|.(p - a) by at most
+   * slope |p - g| + |g - (a + b + c) / 3| plus the rounding of the offset
+   * and of the distance. The norm |p - g| is bounded by |p - a| + |a - g|.
+   * All norms are 1-norms, which bound the 2-norms. The factor 1 + gamma(16)
+   * in {@link #filterBound(int, int)} covers the rounding of the evaluation of
+   * the bound itself.
+   *
+   * @param face triangle */
+  private void setFilterBound(int face) {
+    if (faceBound.length < 2 * face + 2)
+      faceBound = Arrays.copyOf(faceBound, Math.max(2 * face + 2, faceBound.length * 2));
+    int he = mesh.he0(face);
+    int a = mesh.head(he);
+    he = mesh.next(he);
+    int b = mesh.head(he);
+    int c = mesh.head(mesh.next(he));
+    double ax = points.x(a);
+    double ay = points.y(a);
+    double az = points.z(a);
+    double d1x = points.x(b) - ax;
+    double d1y = points.y(b) - ay;
+    double d1z = points.z(b) - az;
+    double d2x = points.x(c) - ax;
+    double d2y = points.y(c) - ay;
+    double d2z = points.z(c) - az;
+    double error = GAMMA_6 * ( //
+    Math.abs(d1y * d2z) + Math.abs(d1z * d2y) + //
+        Math.abs(d1z * d2x) + Math.abs(d1x * d2z) + //
+        Math.abs(d1x * d2y) + Math.abs(d1y * d2x));
+    // the computed area |s| is at least (1 - gamma(8)) times the exact norm of s
+    double area = (1 - GAMMA_8) * mesh.area(face);
+    // the slope is infinite for a triangle of zero area, so that the bound is not finite
+    double slope = 0 < area //
+        ? GAMMA_8 + 2 * error / area
+        : Double.POSITIVE_INFINITY;
+    double vertices = Math.abs(ax) + Math.abs(ay) + Math.abs(az) + //
+        Math.abs(points.x(b)) + Math.abs(points.y(b)) + Math.abs(points.z(b)) + //
+        Math.abs(points.x(c)) + Math.abs(points.y(c)) + Math.abs(points.z(c));
+    // bound of |g - (a + b + c) / 3|
+    double centroidError = GAMMA_4 * vertices / 3;
+    // bound of |a - g|
+    double reach = (1 + GAMMA_4) * ( //
+    Math.abs(d1x) + Math.abs(d1y) + Math.abs(d1z) + //
+        Math.abs(d2x) + Math.abs(d2y) + Math.abs(d2z)) / 3 + centroidError;
+    // rounding of the offset, and of the term of the offset in the distance
+    double offset = (GAMMA_4 + GAMMA_4 * (1 + GAMMA_4)) * (1 + GAMMA_8) * (1 + GAMMA_4) * vertices / 3;
+    faceBound[2 * face] = slope;
+    faceBound[2 * face + 1] = slope * reach + centroidError + offset;
+  }
+
+  /** @param face triangle
+   * @param vtx
+   * @return bound of the error of the distance of given point to the plane of
+   * given face, or NaN if the bound is not finite, see {@link #setFilterBound(int)} */
+  private double filterBound(int face, int vtx) {
+    int a = mesh.head(mesh.he0(face));
+    double px = points.x(vtx);
+    double py = points.y(vtx);
+    double pz = points.z(vtx);
+    double reach = Math.abs(px - points.x(a)) + Math.abs(py - points.y(a)) + Math.abs(pz - points.z(a));
+    return (1 + GAMMA_16) * (faceBound[2 * face] * reach + faceBound[2 * face + 1] + //
+        GAMMA_4 * (1 + GAMMA_8) * (Math.abs(px) + Math.abs(py) + Math.abs(pz)));
+  }
+
+  /** @param face
+   * @param vtx
+   * @return whether given point is above given face, see {@link #isAbove(int, int, double)} */
+  private boolean isAbove(int face, int vtx) {
+    return isAbove(face, vtx, mesh.distanceToPlane(face, vtx));
+  }
+
+  /** @param face triangle
+   * @param vtx
+   * @return sign of the orientation of given point with respect to the
+   * vertices of given face, see {@link Orient3D#signum} */
+  private int orientation(int face, int vtx) {
+    int he = mesh.he0(face);
+    int a = mesh.head(he);
+    he = mesh.next(he);
+    int b = mesh.head(he);
+    int c = mesh.head(mesh.next(he));
+    return Orient3D.signum( //
+        points.x(a), points.y(a), points.z(a), //
+        points.x(b), points.y(b), points.z(b), //
+        points.x(c), points.y(c), points.z(c), //
+        points.x(vtx), points.y(vtx), points.z(vtx));
+  }
+
+  private int numPoints() {
+    return points.size();
+  }
+
+  private boolean checkFaceConvexity(int face, double tol, PrintStream ps) {
+    double dist;
+    mesh.checkConsistency(face);
+    int he0 = mesh.he0(face);
+    int he = he0;
+    do {
+      // make sure edge is convex
+      dist = oppFaceDistance(he);
+      if (robust //
+          ? isAbove(face, mesh.head(mesh.next(mesh.opposite(he))))
+          : dist > tol) {
+        if (ps != null)
+          ps.println("Edge " + mesh.getVertexString2(he) + " non-convex by " + dist);
+        return false;
+      }
+      dist = oppFaceDistance(mesh.opposite(he));
+      if (robust //
+          ? isAbove(mesh.oppositeFace(he), mesh.head(mesh.next(he)))
+          : dist > tol) {
+        if (ps != null)
+          ps.println("Opposite edge " + mesh.getVertexString2(mesh.opposite(he)) + " non-convex by " + dist);
+        return false;
+      }
+      if (mesh.oppositeFace(mesh.next(he)) == mesh.oppositeFace(he)) {
+        if (ps != null)
+          ps.println("Redundant vertex " + mesh.head(he) + " in face " + mesh.getVertexString(face));
+        return false;
+      }
+      he = mesh.next(he);
+    } while (he != he0);
+    return true;
+  }
+
+  private boolean checkFaces(double tol, PrintStream ps) {
+    for (int face = mesh.firstFace(); 0 <= face; face = mesh.nextFace(face))
+      if (!checkFaceConvexity(face, tol, ps))
+        return false;
+    return true;
+  }
+
+  /** Verifies the hull: the convexity of every edge, and that every input
+   * point is inside the hull. Instead of testing every point against every
+   * face, the faces are arranged in a hierarchy by the direction of their
+   * normal, see {@link PlaneTree}, so that the cost per point is typically
+   * logarithmic in the number of faces. The points are processed in parallel if
+   * {@link #getParallel()} and there are sufficiently many.
+   *
+   * <p>The distances are evaluated in floating point arithmetic also in robust
+   * mode, i.e. the exact predicates are not used, and the planes of thin
+   * triangles may be inaccurate. The exact containment of the points in a
+   * hull built in robust mode is tested by {@link #check(PrintStream)}.
+   *
+   * @return maximum violations of convexity and of containment together with
+   * the edge, point, and face at which they are attained
+   * @throws IllegalStateException if the hull has not been built */
+  public HullVerification verify() {
+    if (!built)
+      throw new IllegalStateException("hull not built");
+    double maxEdgeDistance = Double.NEGATIVE_INFINITY;
+    int edge = -1;
+    // every half-edge belongs to exactly one face
+    for (int face = mesh.firstFace(); 0 <= face; face = mesh.nextFace(face)) {
+      int he0 = mesh.he0(face);
+      int he = he0;
+      do {
+        double dist = oppFaceDistance(he);
+        if (maxEdgeDistance < dist) {
+          maxEdgeDistance = dist;
+          edge = he;
+        }
+        he = mesh.next(he);
+      } while (he != he0);
+    }
+    double[] planes = getPlanes();
+    double[] centroids = new double[planes.length / 4 * 3];
+    int offset = 0;
+    for (int face = mesh.firstFace(); 0 <= face; face = mesh.nextFace(face)) {
+      mesh.getCentroid(face, centroids, offset);
+      offset += 3;
+    }
+    PlaneTree planeTree = new PlaneTree(planes, centroids);
+    int chunks = chunks();
+    double[] maxs = new double[chunks];
+    int[] args = new int[2 * chunks];
+    forEachChunk(chunks, chunk -> farthestPoint( //
+        planes, planeTree, //
+        chunk * CHUNK_SIZE, //
+        chunkEnd(chunks, chunk), //
+        maxs, args, chunk));
+    int best = 0;
+    for (int chunk = 1; chunk < chunks; ++chunk)
+      if (maxs[best] < maxs[chunk])
+        best = chunk;
+    return new HullVerification(tolerance, //
+        maxEdgeDistance, mesh.tail(edge), mesh.head(edge), //
+        maxs[best], args[2 * best], args[2 * best + 1]);
+  }
+
+  /** @param planes of the faces
+   * @param planeTree of given planes
+   * @param begin index of first point
+   * @param end index after last point
+   * @param maxs receives at index chunk the maximum distance of a point above a face
+   * @param args receives at index 2 * chunk and 2 * chunk + 1 the point and the face
+   * of the maximum, or -1 if there are no points
+   * @param chunk */
+  private void farthestPoint(double[] planes, PlaneTree planeTree, int begin, int end, double[] maxs, int[] args, int chunk) {
+    int[] stack = planeTree.stack();
+    double max = Double.NEGATIVE_INFINITY;
+    int point = -1;
+    int face = -1;
+    for (int vertex = begin; vertex < end; ++vertex) {
+      double x = points.x(vertex);
+      double y = points.y(vertex);
+      double z = points.z(vertex);
+      int index = planeTree.farthestPlane(x, y, z, max, stack);
+      if (0 <= index) {
+        int i = index * 4;
+        max = planes[i] * x + planes[i + 1] * y + planes[i + 2] * z - planes[i + 3];
+        point = vertex;
+        face = index;
+      }
+    }
+    maxs[chunk] = max;
+    args[2 * chunk] = point;
+    args[2 * chunk + 1] = face;
+  }
+
+  /** Checks the correctness of the hull using the distance tolerance
+   * returned by {@link #getDistanceTolerance()}. The half-edges and the
+   * convexity of every face are checked, and all points are checked to be
+   * inside the hull by {@link #verify()}, or in robust mode, by the exact
+   * predicate at cost proportional to the number of points times the number
+   * of faces. The exact predicate is evaluated only if the distance of a
+   * point to a face is within the error bound of the plane.
+   *
+   * @param ps print stream for diagnostic messages; may be
+   * set to <code>null</code> if no messages are desired.
+   * @return true if the hull is valid
+   * @see QuickHull3D#check(PrintStream) */
+  public boolean check(PrintStream ps) {
+    // check to make sure all edges are fully connected
+    // and that the edges are convex
+    if (!checkFaces(tolerance, ps))
+      return false;
+    // check point inclusion
+    if (robust) {
+      // the planes of thin triangles are inaccurate, instead every point is
+      // tested against every face with the exact predicate
+      for (int vertex = 0; vertex < numPoints(); ++vertex)
+        for (int face = mesh.firstFace(); 0 <= face; face = mesh.nextFace(face))
+          if (isAbove(face, vertex)) {
+            if (ps != null)
+              ps.println("Point " + vertex + " above face " + mesh.getVertexString(face));
+            return false;
+          }
+      return true;
+    }
+    HullVerification hullVerification = verify();
+    if (!hullVerification.containsPoints()) {
+      if (ps != null) {
+        int face = mesh.firstFace();
+        for (int index = 0; index < hullVerification.face(); ++index)
+          face = mesh.nextFace(face);
+        ps.println("Point " + hullVerification.point() + " " + hullVerification.maxPointDistance() + " above face " + mesh.getVertexString(face));
+      }
+      return false;
+    }
+    return true;
+  }
+}
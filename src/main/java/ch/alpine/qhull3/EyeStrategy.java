@@ -0,0 +1,18 @@
+// code by jph
+package ch.alpine.qhull3;
+
+/** selection of the next point that is inserted into the hull, the eye point.
+ * The hull does not depend on the strategy. However, since the points are
+ * inserted in a different order, the faces may differ in order and, within
+ * the tolerance, in shape.
+ *
+ * @see DoubleQuickHull3D#setEyeStrategy(EyeStrategy) */
+public enum EyeStrategy {
+  /** the farthest point of the face whose outside set comes first in the
+   * list of claimed points, as in {@link QuickHull3D} */
+  OUTSIDE_SET_ORDER,
+  /** the point that is farthest from its face among all outside sets. The
+   * faces are held in a max-heap keyed by the distance of their farthest
+   * outside point, which is updated whenever a point is assigned to a face. */
+  FARTHEST
+}
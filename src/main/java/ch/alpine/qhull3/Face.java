@@ -21,7 +21,6 @@ import ch.alpine.tensor.Tensor;
 import ch.alpine.tensor.Tensors;
 import ch.alpine.tensor.lie.rot.Cross;
 import ch.alpine.tensor.nrm.Vector2Norm;
-import ch.alpine.tensor.sca.Abs;
 
 /** Basic triangular face used to form the hull.
  *
@@ -30,11 +29,19 @@ import ch.alpine.tensor.sca.Abs;
  * href=HalfEdge>HalfEdges</a> which surround the face in a
  * counter-clockwise direction.
  *
+ * <p>The normal and the centroid are derived from running sums that are
+ * updated when the face absorbs an adjacent face or loses a redundant
+ * vertex. The sums are computed from the ring for new faces, or when
+ * the accumulated terms indicate a significant round-off.
+ *
  * @author John E. Lloyd, Fall 2004 */
 class Face {
   static final int VISIBLE = 1;
   static final int NON_CONVEX = 2;
   static final int DELETED = 3;
+  /** the normal is computed from the ring if the norms of the terms
+   * accumulated into the running sum exceed the norm of the sum by this factor */
+  private static final Scalar DRIFT_RATIO = RealScalar.of(4);
 
   /** Constructs a triangule Face from vertices v0, v1, and v2.
    *
@@ -61,28 +68,43 @@ class Face {
   // ---
   private Tensor normal;
   private Tensor centroid;
+  /** running sum of the unnormalized normal */
+  private Tensor normalSum;
+  /** running sum of the vertices */
+  private Tensor vertexSum;
+  /** sum of the norms of the terms accumulated into normalSum since its computation from the ring */
+  private Scalar normalMass;
   HalfEdge he0;
   Scalar area = RealScalar.ZERO;
   private Scalar planeOffset = RealScalar.ZERO;
+  /** incremented whenever the plane or the centroid is computed */
+  int planeStamp = 0;
   private int numVerts;
   Face next;
   int mark = VISIBLE;
   Vertex outside;
 
-  private void computeNormalAndCentroid() {
+  /** Computes the normal and the centroid from the vertices of the ring,
+   * and resets the running sums. */
+  void computeNormalAndCentroid() {
     computeNormal();
     computeCentroid();
     planeOffset = (Scalar) normal.dot(centroid);
+    ++planeStamp;
   }
 
   private void computeCentroid() {
-    centroid = Tensors.vector(0, 0, 0);
+    vertexSum = Tensors.vector(0, 0, 0);
     HalfEdge he = he0;
     do {
-      centroid = centroid.add(he.head().pnt);
+      vertexSum = vertexSum.add(he.head().pnt);
       he = he.next();
     } while (he != he0);
-    centroid = centroid.multiply(RealScalar.of(numVerts).reciprocal());
+    setCentroid();
+  }
+
+  private void setCentroid() {
+    centroid = vertexSum.multiply(RealScalar.of(numVerts).reciprocal());
   }
 
   private void computeNormal() {
@@ -101,20 +123,57 @@ class Face {
       he2 = he2.next();
       ++numVerts;
     }
-    area = Vector2Norm.of(normal);
-    normal = normal.multiply(area.reciprocal());
+    normalSum = normal;
+    setNormal();
+    normalMass = area;
   }
 
-  private void updateNormalAndCentroid() {
-    computeNormalAndCentroid();
-    int numv = 0;
-    HalfEdge he = he0;
-    do {
-      numv++;
-      he = he.next();
-    } while (he != he0);
-    if (numv != numVerts)
-      throw new RuntimeException("face " + getVertexString() + " numVerts=" + numVerts + " should be " + numv);
+  private void setNormal() {
+    area = Vector2Norm.of(normalSum);
+    normal = normalSum.multiply(area.reciprocal());
+  }
+
+  /** Removes vertex v from the running sums, where the consecutive edges a-v
+   * and v-b of the ring are replaced by the edge a-b.
+   *
+   * @param a
+   * @param v
+   * @param b */
+  private void removeVertex(Vertex a, Vertex v, Vertex b) {
+    // normal of the triangle a, v, b that is cut off
+    Tensor delta = Cross.of(v.pnt.subtract(a.pnt), b.pnt.subtract(a.pnt));
+    normalSum = normalSum.subtract(delta);
+    normalMass = normalMass.add(Vector2Norm.of(delta));
+    subtractVertex(v);
+  }
+
+  private void subtractVertex(Vertex vertex) {
+    vertexSum = vertexSum.subtract(vertex.pnt);
+    --numVerts;
+  }
+
+  /** Updates the normal and the centroid from the running sums, or computes
+   * them from the ring if the running sum of the normal has drifted.
+   *
+   * @param validation {@link Validation#FULL} recounts the vertices of the ring */
+  private void updateNormalAndCentroid(Validation validation) {
+    if (validation == Validation.FULL) {
+      int numv = 0;
+      HalfEdge he = he0;
+      do {
+        numv++;
+        he = he.next();
+      } while (he != he0);
+      if (numv != numVerts)
+        throw new RuntimeException("face " + getVertexString() + " numVerts=" + numVerts + " should be " + numv);
+    }
+    setNormal();
+    if (Scalars.lessEquals(normalMass, area.multiply(DRIFT_RATIO))) {
+      setCentroid();
+      planeOffset = (Scalar) normal.dot(centroid);
+      ++planeStamp;
+    } else
+      computeNormalAndCentroid();
   }
 
   /** Gets the i-th half-edge associated with the face.
@@ -143,11 +202,18 @@ class Face {
     return (Scalar) normal.dot(p).subtract(planeOffset);
   }
 
+  /** @param face
+   * @return distance from the centroid of given face to the plane of this face,
+   * without a copy of the centroid */
+  Scalar distanceToCentroid(Face face) {
+    return distanceToPlane(face.centroid);
+  }
+
   public Tensor centroid() {
     return centroid.copy();
   }
 
-  private int numVertices() {
+  int numVertices() {
     return numVerts;
   }
 
@@ -165,10 +231,14 @@ class Face {
     return s;
   }
 
-  private Face connectHalfEdges(HalfEdge hedgePrev, HalfEdge hedge) {
+  private Face connectHalfEdges(HalfEdge hedgePrev, HalfEdge hedge, Validation validation) {
     Face discardedFace = null;
     if (hedgePrev.oppositeFace() == hedge.oppositeFace()) { // then there is a redundant edge that we can get rid off
       Face oppFace = hedge.oppositeFace();
+      Vertex a = hedgePrev.tail();
+      Vertex v = hedgePrev.head();
+      Vertex b = hedge.head();
+      removeVertex(a, v, b);
       HalfEdge hedgeOpp;
       if (hedgePrev == he0) {
         he0 = hedge;
@@ -179,6 +249,7 @@ class Face {
         discardedFace = oppFace;
       } else {
         hedgeOpp = hedge.getOpposite().next();
+        oppFace.removeVertex(b, v, a);
         if (oppFace.he0 == hedgeOpp.prev()) {
           oppFace.he0 = hedgeOpp;
         }
@@ -190,7 +261,7 @@ class Face {
       hedge.opposite = hedgeOpp;
       hedgeOpp.opposite = hedge;
       // oppFace was modified, so need to recompute
-      oppFace.updateNormalAndCentroid();
+      oppFace.updateNormalAndCentroid(validation);
     } else {
       hedgePrev.next(hedge);
       hedge.prev(hedgePrev);
@@ -201,30 +272,10 @@ class Face {
   /** sanity check on the face */
   void checkConsistency() {
     HalfEdge hedge = he0;
-    Scalar maxd = RealScalar.ZERO;
     int numv = 0;
-    if (numVerts < 3)
-      throw new RuntimeException("degenerate face: " + getVertexString());
+    checkDegenerate();
     do {
-      HalfEdge hedgeOpp = hedge.getOpposite();
-      if (hedgeOpp == null)
-        throw new RuntimeException("face " + getVertexString() + ": " + "unreflected half edge " + hedge.getVertexString());
-      else //
-      if (hedgeOpp.getOpposite() != hedge)
-        throw new RuntimeException("face " + getVertexString() + ": " + "opposite half edge " + hedgeOpp.getVertexString() + " has opposite "
-            + hedgeOpp.getOpposite().getVertexString());
-      if (hedgeOpp.head() != hedge.tail() || hedge.head() != hedgeOpp.tail())
-        // jan experienced this exception for cuboid
-        throw new RuntimeException("face " + getVertexString() + ": " + "half edge " + hedge.getVertexString() + " reflected by " + hedgeOpp.getVertexString());
-      Face oppFace = hedgeOpp.face;
-      if (oppFace == null)
-        throw new RuntimeException("face " + getVertexString() + ": " + "no face on half edge " + hedgeOpp.getVertexString());
-      else //
-      if (oppFace.mark == DELETED)
-        throw new RuntimeException("face " + getVertexString() + ": " + "opposite face " + oppFace.getVertexString() + " not on hull");
-      Scalar d = Abs.FUNCTION.apply(distanceToPlane(hedge.head().pnt));
-      if (Scalars.lessThan(maxd, d))
-        maxd = d;
+      checkEdge(hedge);
       numv++;
       hedge = hedge.next();
     } while (hedge != he0);
@@ -232,11 +283,46 @@ class Face {
       throw new RuntimeException("face " + getVertexString() + " numVerts=" + numVerts + " should be " + numv);
   }
 
-  public List<Face> mergeAdjacentFace(HalfEdge hedgeAdj) {
+  private void checkDegenerate() {
+    if (numVerts < 3)
+      throw new RuntimeException("degenerate face: " + getVertexString());
+  }
+
+  /** sanity check on the given half-edge of the face and its opposite
+   * 
+   * @param hedge */
+  private void checkEdge(HalfEdge hedge) {
+    HalfEdge hedgeOpp = hedge.getOpposite();
+    if (hedgeOpp == null)
+      throw new RuntimeException("face " + getVertexString() + ": " + "unreflected half edge " + hedge.getVertexString());
+    else //
+    if (hedgeOpp.getOpposite() != hedge)
+      throw new RuntimeException("face " + getVertexString() + ": " + "opposite half edge " + hedgeOpp.getVertexString() + " has opposite "
+          + hedgeOpp.getOpposite().getVertexString());
+    if (hedgeOpp.head() != hedge.tail() || hedge.head() != hedgeOpp.tail())
+      // jan experienced this exception for cuboid
+      throw new RuntimeException("face " + getVertexString() + ": " + "half edge " + hedge.getVertexString() + " reflected by " + hedgeOpp.getVertexString());
+    Face oppFace = hedgeOpp.face;
+    if (oppFace == null)
+      throw new RuntimeException("face " + getVertexString() + ": " + "no face on half edge " + hedgeOpp.getVertexString());
+    else //
+    if (oppFace.mark == DELETED)
+      throw new RuntimeException("face " + getVertexString() + ": " + "opposite face " + oppFace.getVertexString() + " not on hull");
+  }
+
+  /** @param hedgeAdj
+   * @param validation of the merged face, see {@link Validation}
+   * @return faces that are discarded by the merge */
+  public List<Face> mergeAdjacentFace(HalfEdge hedgeAdj, Validation validation) {
     List<Face> discarded = new ArrayList<>(3);
     Face oppFace = hedgeAdj.oppositeFace();
     discarded.add(oppFace);
     oppFace.mark = DELETED;
+    // the contributions of the shared edges to the normal cancel
+    normalSum = normalSum.add(oppFace.normalSum);
+    normalMass = normalMass.add(oppFace.normalMass);
+    vertexSum = vertexSum.add(oppFace.vertexSum);
+    numVerts += oppFace.numVerts;
     HalfEdge hedgeOpp = hedgeAdj.getOpposite();
     HalfEdge hedgeAdjPrev = hedgeAdj.prev();
     HalfEdge hedgeAdjNext = hedgeAdj.next();
@@ -254,20 +340,36 @@ class Face {
     for (hedge = hedgeOppNext; hedge != hedgeOppPrev.next(); hedge = hedge.next()) {
       hedge.face = this;
     }
-    if (hedgeAdj == he0) {
-      he0 = hedgeAdjNext;
+    // the vertices of the shared edges occur in both rings
+    for (hedge = hedgeAdjPrev.next(); hedge != hedgeAdjNext; hedge = hedge.next()) {
+      if (hedge == he0) {
+        he0 = hedgeAdjNext;
+      }
+      subtractVertex(hedge.head());
+      subtractVertex(hedge.getOpposite().head());
     }
     // handle the half edges at the head
     Face discardedFace;
-    discardedFace = connectHalfEdges(hedgeOppPrev, hedgeAdjNext);
+    discardedFace = connectHalfEdges(hedgeOppPrev, hedgeAdjNext, validation);
     if (discardedFace != null)
       discarded.add(discardedFace);
     // handle the half edges at the tail
-    discardedFace = connectHalfEdges(hedgeAdjPrev, hedgeOppNext);
+    discardedFace = connectHalfEdges(hedgeAdjPrev, hedgeOppNext, validation);
     if (discardedFace != null)
       discarded.add(discardedFace);
-    updateNormalAndCentroid();
-    checkConsistency();
+    updateNormalAndCentroid(validation);
+    switch (validation) {
+    case CHEAP -> {
+      // the rings are joined at both half-edges
+      checkDegenerate();
+      checkEdge(hedgeAdjNext);
+      checkEdge(hedgeOppNext);
+    }
+    case FULL -> checkConsistency();
+    default -> {
+      // no checks
+    }
+    }
     return discarded;
   }
 
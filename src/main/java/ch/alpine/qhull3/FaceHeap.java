@@ -0,0 +1,75 @@
+// code by jph
+package ch.alpine.qhull3;
+
+import java.util.Arrays;
+
+/** binary max-heap of faces keyed by a distance that keeps its buffers after
+ * {@link #clear()}. A face may occur multiple times with different keys;
+ * entries are not removed when their key becomes obsolete, instead the
+ * caller discards such entries when they reach the top. */
+final class FaceHeap {
+  private int[] faces = new int[16];
+  private double[] keys = new double[16];
+  private int size;
+
+  /** @param face
+   * @param key */
+  void push(int face, double key) {
+    if (size == faces.length) {
+      faces = Arrays.copyOf(faces, size * 2);
+      keys = Arrays.copyOf(keys, size * 2);
+    }
+    int index = size++;
+    while (0 < index) {
+      int parent = (index - 1) >> 1;
+      if (key <= keys[parent])
+        break;
+      faces[index] = faces[parent];
+      keys[index] = keys[parent];
+      index = parent;
+    }
+    faces[index] = face;
+    keys[index] = key;
+  }
+
+  /** @return face of entry with maximum key */
+  int face() {
+    return faces[0];
+  }
+
+  /** @return maximum key */
+  double key() {
+    return keys[0];
+  }
+
+  /** removes the entry with maximum key */
+  void pop() {
+    int face = faces[--size];
+    double key = keys[size];
+    int index = 0;
+    int child;
+    while ((child = 2 * index + 1) < size) {
+      if (child + 1 < size && keys[child] < keys[child + 1])
+        ++child;
+      if (keys[child] <= key)
+        break;
+      faces[index] = faces[child];
+      keys[index] = keys[child];
+      index = child;
+    }
+    faces[index] = face;
+    keys[index] = key;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  void clear() {
+    size = 0;
+  }
+}
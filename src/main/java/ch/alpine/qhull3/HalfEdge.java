@@ -27,6 +27,13 @@ class HalfEdge {
   /** Half-edge associated with the opposite triangle
    * adjacent to this edge. */
   HalfEdge opposite;
+  /** cached result of {@link #oppFaceDistance()} */
+  private double oppFaceDistance;
+  /** faces and their plane stamps for which the cached distance was computed */
+  private Face distanceFace;
+  private Face distanceOppFace;
+  private int distanceFaceStamp;
+  private int distanceOppStamp;
 
   /** Constructs a HalfEdge with head vertex <code>v</code> and
    * left-hand triangular face <code>f</code>.
@@ -107,6 +114,24 @@ class HalfEdge {
     return opposite.face;
   }
 
+  /** The distance is cached, and is recomputed only if either face, or the
+   * plane or centroid of either face has changed since.
+   *
+   * @return distance of the centroid of the opposite face above the plane
+   * of the face of this half-edge */
+  double oppFaceDistance() {
+    Face oppFace = opposite.face;
+    if (distanceFace != face || distanceFaceStamp != face.planeStamp || //
+        distanceOppFace != oppFace || distanceOppStamp != oppFace.planeStamp) {
+      oppFaceDistance = face.distanceToCentroid(oppFace).number().doubleValue();
+      distanceFace = face;
+      distanceOppFace = oppFace;
+      distanceFaceStamp = face.planeStamp;
+      distanceOppStamp = oppFace.planeStamp;
+    }
+    return oppFaceDistance;
+  }
+
   /** Produces a string identifying this half-edge by the point
    * index values of its tail and head vertices.
    *
@@ -0,0 +1,795 @@
+// code by John E. Lloyd, adapted by jph
+package ch.alpine.qhull3;
+
+import java.util.Arrays;
+
+/** Half-edge mesh of {@link DoubleQuickHull3D} stored in packed arrays.
+ *
+ * <p>Half-edges and faces are identified by int slots. For each half-edge,
+ * the arrays hold the index of the head vertex, the next and previous
+ * half-edge counter-clockwise around the face, the opposite half-edge,
+ * and the face. For each face, the arrays hold the first half-edge,
+ * the mark, the number of vertices, the first point of the outside set,
+ * the plane coefficients {nx, ny, nz, offset}, the centroid, and the area.
+ *
+ * <p>The normal and the centroid are derived from running sums per face:
+ * the unnormalized Newell normal, and the sum of the vertices. When a face
+ * absorbs another face, or loses a redundant vertex, the sums are updated by
+ * the contribution of the affected ring segments instead of a pass over the
+ * entire ring. The sums are computed from the ring only for new faces, on
+ * request, or when the accumulated terms are large compared to the normal
+ * so that the round-off of the updates may be significant.
+ *
+ * <p>Slots of deleted half-edges and faces are recycled via free lists.
+ * Half-edges that vanish during a merge are released immediately.
+ * Faces that are deleted are kept until {@link #release()} so that their
+ * outside sets and marks remain accessible until the end of an iteration.
+ * Live faces are linked in the order of creation so that the output
+ * order coincides with that of {@link QuickHull3D}.
+ *
+ * @author John E. Lloyd, Fall 2004 */
+final class HalfEdgeMesh {
+  static final int VISIBLE = 1;
+  static final int NON_CONVEX = 2;
+  static final int DELETED = 3;
+  private static final int INITIAL_CAPACITY = 64;
+  /** the normal of a face is computed from the ring if the norms of the terms
+   * accumulated into the running sum exceed the norm of the sum by this factor */
+  private static final double DRIFT_RATIO = 4;
+  // ---
+  private final DoublePoints points;
+  // half-edges
+  private int[] heHead = new int[INITIAL_CAPACITY];
+  private int[] heNext = new int[INITIAL_CAPACITY];
+  private int[] hePrev = new int[INITIAL_CAPACITY];
+  private int[] heOpp = new int[INITIAL_CAPACITY];
+  private int[] heFace = new int[INITIAL_CAPACITY];
+  private int heSize = 0;
+  /** free list of half-edges linked via heNext */
+  private int heFree = -1;
+  // faces
+  private int[] faceHe0 = new int[INITIAL_CAPACITY];
+  private int[] faceMark = new int[INITIAL_CAPACITY];
+  private int[] faceNumVerts = new int[INITIAL_CAPACITY];
+  private int[] faceOutside = new int[INITIAL_CAPACITY];
+  /** order of creation */
+  private int[] faceSeqNext = new int[INITIAL_CAPACITY];
+  private int[] faceSeqPrev = new int[INITIAL_CAPACITY];
+  /** 4 entries per face: normal and plane offset */
+  private double[] facePlane = new double[INITIAL_CAPACITY * 4];
+  /** 3 entries per face */
+  private double[] faceCentroid = new double[INITIAL_CAPACITY * 3];
+  private double[] faceArea = new double[INITIAL_CAPACITY];
+  /** 3 entries per face: running sum of the unnormalized normal */
+  private double[] faceNormalSum = new double[INITIAL_CAPACITY * 3];
+  /** 3 entries per face: running sum of the vertices */
+  private double[] faceVertexSum = new double[INITIAL_CAPACITY * 3];
+  /** sum of the norms of the terms accumulated into the normal since its computation from the ring */
+  private double[] faceNormalMass = new double[INITIAL_CAPACITY];
+  /** incremented whenever the adjacency, the geometry, or the status of a face changes */
+  private int[] faceVersion = new int[INITIAL_CAPACITY];
+  /** assigned from planeStamps whenever the plane of a face is computed */
+  private int[] facePlaneStamp = new int[INITIAL_CAPACITY];
+  private int planeStamps = 0;
+  private int faceSize = 0;
+  /** free list of faces linked via faceSeqNext */
+  private int faceFree = -1;
+  private int seqHead = -1;
+  private int seqTail = -1;
+  /** number of faces that are not released */
+  private int numFaces = 0;
+  /** number of half-edges that are not freed */
+  private int numHalfEdges = 0;
+  /** faces deleted since the last call to release() */
+  private final IntList deletedFaces = new IntList();
+  /** faces deleted as visible faces whose half-edges are released together with the face */
+  private final IntList deletedRings = new IntList();
+
+  /** @param points coordinates that are referred to by the vertex indices */
+  HalfEdgeMesh(DoublePoints points) {
+    this.points = points;
+  }
+
+  /** Removes all faces and half-edges. The capacity of the arrays is retained
+   * so that a subsequent hull of similar size does not allocate. */
+  void clear() {
+    heSize = 0;
+    heFree = -1;
+    faceSize = 0;
+    faceFree = -1;
+    seqHead = -1;
+    seqTail = -1;
+    numFaces = 0;
+    numHalfEdges = 0;
+    deletedFaces.clear();
+    deletedRings.clear();
+  }
+
+  // ---
+  private int allocateHalfEdge(int vertex, int face) {
+    int he;
+    if (0 <= heFree) {
+      he = heFree;
+      heFree = heNext[he];
+    } else {
+      if (heSize == heHead.length) {
+        int capacity = heSize * 2;
+        heHead = Arrays.copyOf(heHead, capacity);
+        heNext = Arrays.copyOf(heNext, capacity);
+        hePrev = Arrays.copyOf(hePrev, capacity);
+        heOpp = Arrays.copyOf(heOpp, capacity);
+        heFace = Arrays.copyOf(heFace, capacity);
+      }
+      he = heSize++;
+    }
+    heHead[he] = vertex;
+    heFace[he] = face;
+    heOpp[he] = -1;
+    ++numHalfEdges;
+    return he;
+  }
+
+  private void freeHalfEdge(int he) {
+    heFace[he] = -1;
+    heOpp[he] = -1;
+    heNext[he] = heFree;
+    heFree = he;
+    --numHalfEdges;
+  }
+
+  private int allocateFace() {
+    int face;
+    if (0 <= faceFree) {
+      face = faceFree;
+      faceFree = faceSeqNext[face];
+    } else {
+      if (faceSize == faceHe0.length) {
+        int capacity = faceSize * 2;
+        faceHe0 = Arrays.copyOf(faceHe0, capacity);
+        faceMark = Arrays.copyOf(faceMark, capacity);
+        faceNumVerts = Arrays.copyOf(faceNumVerts, capacity);
+        faceOutside = Arrays.copyOf(faceOutside, capacity);
+        faceSeqNext = Arrays.copyOf(faceSeqNext, capacity);
+        faceSeqPrev = Arrays.copyOf(faceSeqPrev, capacity);
+        facePlane = Arrays.copyOf(facePlane, capacity * 4);
+        faceCentroid = Arrays.copyOf(faceCentroid, capacity * 3);
+        faceArea = Arrays.copyOf(faceArea, capacity);
+        faceNormalSum = Arrays.copyOf(faceNormalSum, capacity * 3);
+        faceVertexSum = Arrays.copyOf(faceVertexSum, capacity * 3);
+        faceNormalMass = Arrays.copyOf(faceNormalMass, capacity);
+        faceVersion = Arrays.copyOf(faceVersion, capacity);
+        facePlaneStamp = Arrays.copyOf(facePlaneStamp, capacity);
+      }
+      face = faceSize++;
+    }
+    ++faceVersion[face];
+    ++numFaces;
+    faceMark[face] = VISIBLE;
+    faceOutside[face] = -1;
+    // append to sequence of creation
+    faceSeqPrev[face] = seqTail;
+    faceSeqNext[face] = -1;
+    if (seqTail < 0)
+      seqHead = face;
+    else
+      faceSeqNext[seqTail] = face;
+    seqTail = face;
+    return face;
+  }
+
+  /** Constructs a triangular face from vertices v0, v1, and v2.
+   *
+   * @param v0 index of first vertex
+   * @param v1 index of second vertex
+   * @param v2 index of third vertex
+   * @return face */
+  int createTriangle(int v0, int v1, int v2) {
+    int face = allocateFace();
+    int he0 = allocateHalfEdge(v0, face);
+    int he1 = allocateHalfEdge(v1, face);
+    int he2 = allocateHalfEdge(v2, face);
+    hePrev[he0] = he2;
+    heNext[he0] = he1;
+    hePrev[he1] = he0;
+    heNext[he1] = he2;
+    hePrev[he2] = he1;
+    heNext[he2] = he0;
+    faceHe0[face] = he0;
+    // compute the normal and offset
+    computeNormalAndCentroid(face);
+    return face;
+  }
+
+  /** Marks the given visible face as deleted. The half-edges of the face
+   * and the face itself are released by the next call to {@link #release()}.
+   *
+   * @param face */
+  void deleteFace(int face) {
+    ++faceVersion[face];
+    faceMark[face] = DELETED;
+    deletedFaces.add(face);
+    deletedRings.add(face);
+  }
+
+  /** Recycles the slots of all faces deleted since the last invocation.
+   * The outside sets of the faces have to be empty. */
+  void release() {
+    for (int index = 0; index < deletedRings.size(); ++index) {
+      int face = deletedRings.get(index);
+      int he0 = faceHe0[face];
+      int he = he0;
+      do {
+        int next = heNext[he];
+        freeHalfEdge(he);
+        he = next;
+      } while (he != he0);
+    }
+    deletedRings.clear();
+    for (int index = 0; index < deletedFaces.size(); ++index) {
+      int face = deletedFaces.get(index);
+      // remove from sequence of creation
+      int prev = faceSeqPrev[face];
+      int next = faceSeqNext[face];
+      if (prev < 0)
+        seqHead = next;
+      else
+        faceSeqNext[prev] = next;
+      if (next < 0)
+        seqTail = prev;
+      else
+        faceSeqPrev[next] = prev;
+      faceMark[face] = 0;
+      faceSeqNext[face] = faceFree;
+      faceFree = face;
+      --numFaces;
+    }
+    deletedFaces.clear();
+  }
+
+  // ---
+  /** @return number of faces that are not released */
+  int numFaces() {
+    return numFaces;
+  }
+
+  /** @return number of half-edges that are not freed, which is the total number
+   * of vertices of all faces if there are no deleted faces pending for release */
+  int numHalfEdges() {
+    return numHalfEdges;
+  }
+
+  /** @return first face in order of creation that is not released, or -1 */
+  int firstFace() {
+    return seqHead;
+  }
+
+  /** @param face
+   * @return next face in order of creation that is not released, or -1 */
+  int nextFace(int face) {
+    return faceSeqNext[face];
+  }
+
+  int he0(int face) {
+    return faceHe0[face];
+  }
+
+  int mark(int face) {
+    return faceMark[face];
+  }
+
+  void setMark(int face, int mark) {
+    faceMark[face] = mark;
+  }
+
+  double area(int face) {
+    return faceArea[face];
+  }
+
+  /** @param face
+   * @return index of first point in outside set of face, or -1 */
+  int outside(int face) {
+    return faceOutside[face];
+  }
+
+  void setOutside(int face, int vertex) {
+    faceOutside[face] = vertex;
+  }
+
+  int numVertices(int face) {
+    return faceNumVerts[face];
+  }
+
+  // ---
+  /** @param he half-edge
+   * @return index of head vertex */
+  int head(int he) {
+    return heHead[he];
+  }
+
+  /** @param he half-edge
+   * @return index of tail vertex */
+  int tail(int he) {
+    return heHead[hePrev[he]];
+  }
+
+  /** @param he half-edge
+   * @return next half-edge counter-clockwise around the face */
+  int next(int he) {
+    return heNext[he];
+  }
+
+  /** @param he half-edge
+   * @return previous half-edge clockwise around the face */
+  int prev(int he) {
+    return hePrev[he];
+  }
+
+  int opposite(int he) {
+    return heOpp[he];
+  }
+
+  /** @param he half-edge
+   * @return face to the left of given half-edge */
+  int face(int he) {
+    return heFace[he];
+  }
+
+  int oppositeFace(int he) {
+    return heFace[heOpp[he]];
+  }
+
+  void setOpposite(int he, int opp) {
+    heOpp[he] = opp;
+    heOpp[opp] = he;
+    ++faceVersion[heFace[he]];
+    ++faceVersion[heFace[opp]];
+  }
+
+  /** @param face
+   * @return number that changes whenever the adjacency, the geometry,
+   * or the status of given face changes */
+  int version(int face) {
+    return faceVersion[face];
+  }
+
+  /** @param face
+   * @return number that changes whenever the plane of given face is computed,
+   * and that differs between faces */
+  int planeStamp(int face) {
+    return facePlaneStamp[face];
+  }
+
+  /** Gets the i-th half-edge associated with the face.
+   *
+   * @param face
+   * @param i the half-edge index
+   * @return the half-edge */
+  int getEdge(int face, int i) {
+    int he = faceHe0[face];
+    while (i > 0) {
+      he = heNext[he];
+      i--;
+    }
+    while (i < 0) {
+      he = hePrev[he];
+      i++;
+    }
+    return he;
+  }
+
+  // ---
+  /** Computes the distance from a point p to the plane of
+   * the given face.
+   *
+   * @return distance from the point to the plane */
+  double distanceToPlane(int face, double px, double py, double pz) {
+    int i = face * 4;
+    return facePlane[i] * px + facePlane[i + 1] * py + facePlane[i + 2] * pz - facePlane[i + 3];
+  }
+
+  /** @param face
+   * @param vertex index of point
+   * @return distance from the point to the plane of face */
+  double distanceToPlane(int face, int vertex) {
+    return distanceToPlane(face, points.x(vertex), points.y(vertex), points.z(vertex));
+  }
+
+  /** @param face
+   * @param other face
+   * @return distance from the centroid of other face to the plane of face */
+  double distanceToCentroid(int face, int other) {
+    int j = other * 3;
+    return distanceToPlane(face, faceCentroid[j], faceCentroid[j + 1], faceCentroid[j + 2]);
+  }
+
+  /** @param face
+   * @param dest receives the plane coefficients {nx, ny, nz, offset} of face
+   * @param offset into dest */
+  void getPlane(int face, double[] dest, int offset) {
+    System.arraycopy(facePlane, face * 4, dest, offset, 4);
+  }
+
+  /** @param face
+   * @param dest receives the centroid {x, y, z} of face
+   * @param offset into dest */
+  void getCentroid(int face, double[] dest, int offset) {
+    System.arraycopy(faceCentroid, face * 3, dest, offset, 3);
+  }
+
+  /** Computes the normal and the centroid of given face from the vertices
+   * of its ring, and resets the running sums.
+   *
+   * @param face */
+  void computeNormalAndCentroid(int face) {
+    computeNormal(face);
+    computeCentroid(face);
+    computePlaneOffset(face);
+  }
+
+  private void computePlaneOffset(int face) {
+    int i = face * 4;
+    int j = face * 3;
+    facePlane[i + 3] = //
+        facePlane[i] * faceCentroid[j] + //
+            facePlane[i + 1] * faceCentroid[j + 1] + //
+            facePlane[i + 2] * faceCentroid[j + 2];
+    facePlaneStamp[face] = ++planeStamps;
+  }
+
+  private void computeCentroid(int face) {
+    double sx = 0;
+    double sy = 0;
+    double sz = 0;
+    int he0 = faceHe0[face];
+    int he = he0;
+    do {
+      int vertex = heHead[he];
+      sx += points.x(vertex);
+      sy += points.y(vertex);
+      sz += points.z(vertex);
+      he = heNext[he];
+    } while (he != he0);
+    int j = face * 3;
+    faceVertexSum[j] = sx;
+    faceVertexSum[j + 1] = sy;
+    faceVertexSum[j + 2] = sz;
+    setCentroid(face);
+  }
+
+  private void setCentroid(int face) {
+    // multiplication by the reciprocal as in Face
+    double reciprocal = 1.0 / faceNumVerts[face];
+    int j = face * 3;
+    faceCentroid[j] = faceVertexSum[j] * reciprocal;
+    faceCentroid[j + 1] = faceVertexSum[j + 1] * reciprocal;
+    faceCentroid[j + 2] = faceVertexSum[j + 2] * reciprocal;
+  }
+
+  private void computeNormal(int face) {
+    int he0 = faceHe0[face];
+    int he1 = heNext[he0];
+    int he2 = heNext[he1];
+    int p0 = heHead[he0];
+    int p2 = heHead[he1];
+    double p0x = points.x(p0);
+    double p0y = points.y(p0);
+    double p0z = points.z(p0);
+    double d2x = points.x(p2) - p0x;
+    double d2y = points.y(p2) - p0y;
+    double d2z = points.z(p2) - p0z;
+    double sx = 0;
+    double sy = 0;
+    double sz = 0;
+    int numVerts = 2;
+    while (he2 != he0) {
+      double d1x = d2x;
+      double d1y = d2y;
+      double d1z = d2z;
+      p2 = heHead[he2];
+      d2x = points.x(p2) - p0x;
+      d2y = points.y(p2) - p0y;
+      d2z = points.z(p2) - p0z;
+      sx += d1y * d2z - d1z * d2y;
+      sy += d1z * d2x - d1x * d2z;
+      sz += d1x * d2y - d1y * d2x;
+      he2 = heNext[he2];
+      ++numVerts;
+    }
+    faceNumVerts[face] = numVerts;
+    int j = face * 3;
+    faceNormalSum[j] = sx;
+    faceNormalSum[j + 1] = sy;
+    faceNormalSum[j + 2] = sz;
+    setNormal(face);
+    faceNormalMass[face] = faceArea[face];
+  }
+
+  private void setNormal(int face) {
+    int j = face * 3;
+    double sx = faceNormalSum[j];
+    double sy = faceNormalSum[j + 1];
+    double sz = faceNormalSum[j + 2];
+    double area = StaticHelper.norm(sx, sy, sz);
+    faceArea[face] = area;
+    double reciprocal = 1 / area;
+    int i = face * 4;
+    facePlane[i] = sx * reciprocal;
+    facePlane[i + 1] = sy * reciprocal;
+    facePlane[i + 2] = sz * reciprocal;
+  }
+
+  /** Removes vertex v from the running sums of face, where the consecutive
+   * edges a-v and v-b of the ring of face are replaced by the edge a-b.
+   *
+   * @param face
+   * @param a index of vertex
+   * @param v index of vertex
+   * @param b index of vertex */
+  private void removeVertex(int face, int a, int v, int b) {
+    double ax = points.x(a);
+    double ay = points.y(a);
+    double az = points.z(a);
+    double d1x = points.x(v) - ax;
+    double d1y = points.y(v) - ay;
+    double d1z = points.z(v) - az;
+    double d2x = points.x(b) - ax;
+    double d2y = points.y(b) - ay;
+    double d2z = points.z(b) - az;
+    // normal of the triangle a, v, b that is cut off
+    double sx = d1y * d2z - d1z * d2y;
+    double sy = d1z * d2x - d1x * d2z;
+    double sz = d1x * d2y - d1y * d2x;
+    int j = face * 3;
+    faceNormalSum[j] -= sx;
+    faceNormalSum[j + 1] -= sy;
+    faceNormalSum[j + 2] -= sz;
+    faceNormalMass[face] += StaticHelper.norm(sx, sy, sz);
+    subtractVertex(face, v);
+  }
+
+  private void subtractVertex(int face, int vertex) {
+    int j = face * 3;
+    faceVertexSum[j] -= points.x(vertex);
+    faceVertexSum[j + 1] -= points.y(vertex);
+    faceVertexSum[j + 2] -= points.z(vertex);
+    --faceNumVerts[face];
+  }
+
+  /** Updates the normal and the centroid of given face from the running sums,
+   * or computes them from the ring if the running sum of the normal has drifted.
+   *
+   * @param face
+   * @param validation {@link Validation#FULL} recounts the vertices of the ring */
+  private void updateNormalAndCentroid(int face, Validation validation) {
+    if (validation == Validation.FULL) {
+      int numVerts = faceNumVerts[face];
+      int numv = 0;
+      int he0 = faceHe0[face];
+      int he = he0;
+      do {
+        numv++;
+        he = heNext[he];
+      } while (he != he0);
+      if (numv != numVerts)
+        throw new RuntimeException("face " + getVertexString(face) + " numVerts=" + numVerts + " should be " + numv);
+    }
+    setNormal(face);
+    if (faceNormalMass[face] <= DRIFT_RATIO * faceArea[face]) {
+      setCentroid(face);
+      computePlaneOffset(face);
+    } else
+      computeNormalAndCentroid(face);
+  }
+
+  // ---
+  private int connectHalfEdges(int face, int hedgePrev, int hedge, Validation validation) {
+    int discardedFace = -1;
+    if (oppositeFace(hedgePrev) == oppositeFace(hedge)) { // then there is a redundant edge that we can get rid off
+      int oppFace = oppositeFace(hedge);
+      ++faceVersion[oppFace];
+      int a = tail(hedgePrev);
+      int v = heHead[hedgePrev];
+      int b = heHead[hedge];
+      removeVertex(face, a, v, b);
+      int hedgeOpp;
+      if (hedgePrev == faceHe0[face])
+        faceHe0[face] = hedge;
+      int removed = heOpp[hedge];
+      if (faceNumVerts[oppFace] == 3) { // then we can get rid of the opposite face altogether
+        hedgeOpp = heOpp[hePrev[removed]];
+        faceMark[oppFace] = DELETED;
+        deletedFaces.add(oppFace);
+        discardedFace = oppFace;
+      } else {
+        hedgeOpp = heNext[removed];
+        removeVertex(oppFace, b, v, a);
+        if (faceHe0[oppFace] == hePrev[hedgeOpp])
+          faceHe0[oppFace] = hedgeOpp;
+        hePrev[hedgeOpp] = hePrev[hePrev[hedgeOpp]];
+        heNext[hePrev[hedgeOpp]] = hedgeOpp;
+      }
+      hePrev[hedge] = hePrev[hedgePrev];
+      heNext[hePrev[hedge]] = hedge;
+      heOpp[hedge] = hedgeOpp;
+      heOpp[hedgeOpp] = hedge;
+      freeHalfEdge(hedgePrev);
+      if (discardedFace < 0) {
+        freeHalfEdge(removed);
+        // oppFace was modified, so need to recompute
+        updateNormalAndCentroid(oppFace, validation);
+      } else {
+        // release all half-edges of the triangle
+        int next = heNext[removed];
+        int prev = hePrev[removed];
+        freeHalfEdge(removed);
+        freeHalfEdge(next);
+        freeHalfEdge(prev);
+      }
+    } else {
+      heNext[hedgePrev] = hedge;
+      hePrev[hedge] = hedgePrev;
+    }
+    return discardedFace;
+  }
+
+  /** Merges the face on the opposite side of the given half-edge into the face
+   * of the half-edge.
+   *
+   * Half-edges that are removed from the face by the merge are released, so
+   * that their face is -1.
+   *
+   * @param hedgeAdj half-edge
+   * @param discarded to which the discarded faces are appended
+   * @param touched to which the half-edges of the merged face are appended
+   * that were joined or whose opposite face changed, in the order of the ring
+   * @param validation of the merged face, see {@link Validation} */
+  void mergeAdjacentFace(int hedgeAdj, IntList discarded, IntList touched, Validation validation) {
+    int face = heFace[hedgeAdj];
+    int oppFace = oppositeFace(hedgeAdj);
+    ++faceVersion[face];
+    ++faceVersion[oppFace];
+    discarded.add(oppFace);
+    faceMark[oppFace] = DELETED;
+    deletedFaces.add(oppFace);
+    // the contributions of the shared edges to the normal cancel
+    int i = face * 3;
+    int j = oppFace * 3;
+    faceNormalSum[i] += faceNormalSum[j];
+    faceNormalSum[i + 1] += faceNormalSum[j + 1];
+    faceNormalSum[i + 2] += faceNormalSum[j + 2];
+    faceNormalMass[face] += faceNormalMass[oppFace];
+    faceVertexSum[i] += faceVertexSum[j];
+    faceVertexSum[i + 1] += faceVertexSum[j + 1];
+    faceVertexSum[i + 2] += faceVertexSum[j + 2];
+    faceNumVerts[face] += faceNumVerts[oppFace];
+    int hedgeOpp = heOpp[hedgeAdj];
+    int hedgeAdjPrev = hePrev[hedgeAdj];
+    int hedgeAdjNext = heNext[hedgeAdj];
+    int hedgeOppPrev = hePrev[hedgeOpp];
+    int hedgeOppNext = heNext[hedgeOpp];
+    while (oppositeFace(hedgeAdjPrev) == oppFace) {
+      hedgeAdjPrev = hePrev[hedgeAdjPrev];
+      hedgeOppNext = heNext[hedgeOppNext];
+    }
+    while (oppositeFace(hedgeAdjNext) == oppFace) {
+      hedgeOppPrev = hePrev[hedgeOppPrev];
+      hedgeAdjNext = heNext[hedgeAdjNext];
+    }
+    for (int hedge = hedgeOppNext; hedge != heNext[hedgeOppPrev]; hedge = heNext[hedge])
+      heFace[hedge] = face;
+    // release the shared half-edges on both sides
+    for (int hedge = heNext[hedgeAdjPrev]; hedge != hedgeAdjNext;) {
+      int next = heNext[hedge];
+      if (hedge == faceHe0[face])
+        faceHe0[face] = hedgeAdjNext;
+      // the vertices of the shared edges occur in both rings
+      subtractVertex(face, heHead[hedge]);
+      subtractVertex(face, heHead[heOpp[hedge]]);
+      freeHalfEdge(heOpp[hedge]);
+      freeHalfEdge(hedge);
+      hedge = next;
+    }
+    // handle the half edges at the head
+    int discardedFace;
+    discardedFace = connectHalfEdges(face, hedgeOppPrev, hedgeAdjNext, validation);
+    if (0 <= discardedFace)
+      discarded.add(discardedFace);
+    // handle the half edges at the tail
+    discardedFace = connectHalfEdges(face, hedgeAdjPrev, hedgeOppNext, validation);
+    if (0 <= discardedFace)
+      discarded.add(discardedFace);
+    for (int hedge = hePrev[hedgeOppNext]; hedge != hedgeAdjNext; hedge = heNext[hedge])
+      touched.add(hedge);
+    touched.add(hedgeAdjNext);
+    updateNormalAndCentroid(face, validation);
+    switch (validation) {
+    case CHEAP -> {
+      // the rings are joined at both half-edges
+      checkDegenerate(face);
+      checkEdge(face, hedgeAdjNext);
+      checkEdge(face, hedgeOppNext);
+    }
+    case FULL -> checkConsistency(face);
+    default -> {
+      // no checks
+    }
+    }
+  }
+
+  // ---
+  /** sanity check on the face */
+  void checkConsistency(int face) {
+    int he0 = faceHe0[face];
+    int hedge = he0;
+    int numv = 0;
+    checkDegenerate(face);
+    do {
+      checkEdge(face, hedge);
+      numv++;
+      hedge = heNext[hedge];
+    } while (hedge != he0);
+    if (numv != faceNumVerts[face])
+      throw new RuntimeException("face " + getVertexString(face) + " numVerts=" + faceNumVerts[face] + " should be " + numv);
+  }
+
+  private void checkDegenerate(int face) {
+    if (faceNumVerts[face] < 3)
+      throw new RuntimeException("degenerate face: " + getVertexString(face));
+  }
+
+  /** sanity check on the given half-edge of face and its opposite
+   *
+   * @param face
+   * @param hedge */
+  private void checkEdge(int face, int hedge) {
+    int hedgeOpp = heOpp[hedge];
+    if (hedgeOpp < 0)
+      throw new RuntimeException("face " + getVertexString(face) + ": " + "unreflected half edge " + getVertexString2(hedge));
+    else //
+    if (heOpp[hedgeOpp] != hedge)
+      throw new RuntimeException("face " + getVertexString(face) + ": " + "opposite half edge " + getVertexString2(hedgeOpp) + " has opposite "
+          + getVertexString2(heOpp[hedgeOpp]));
+    if (head(hedgeOpp) != tail(hedge) || head(hedge) != tail(hedgeOpp))
+      throw new RuntimeException("face " + getVertexString(face) + ": " + "half edge " + getVertexString2(hedge) + " reflected by " + getVertexString2(hedgeOpp));
+    int oppFace = heFace[hedgeOpp];
+    if (oppFace < 0)
+      throw new RuntimeException("face " + getVertexString(face) + ": " + "no face on half edge " + getVertexString2(hedgeOpp));
+    else //
+    if (faceMark[oppFace] == DELETED)
+      throw new RuntimeException("face " + getVertexString(face) + ": " + "opposite face " + getVertexString(oppFace) + " not on hull");
+  }
+
+  /** @param face
+   * @return indices of vertices of face in counter-clockwise order */
+  int[] getIndices(int face) {
+    int[] indices = new int[faceNumVerts[face]];
+    int he0 = faceHe0[face];
+    int hedge = he0;
+    int k = 0;
+    do {
+      indices[k++] = heHead[hedge];
+      hedge = heNext[hedge];
+    } while (hedge != he0);
+    return indices;
+  }
+
+  String getVertexString(int face) {
+    StringBuilder stringBuilder = new StringBuilder();
+    int he0 = faceHe0[face];
+    int he = he0;
+    do {
+      if (he != he0)
+        stringBuilder.append(' ');
+      stringBuilder.append(heHead[he]);
+      he = heNext[he];
+    } while (he != he0);
+    return stringBuilder.toString();
+  }
+
+  /** @param he half-edge
+   * @return string identifying the half-edge by the point
+   * index values of its tail and head vertices */
+  String getVertexString2(int he) {
+    return tail(he) + "-" + head(he);
+  }
+}
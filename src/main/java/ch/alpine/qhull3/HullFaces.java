@@ -0,0 +1,160 @@
+// code by jph
+package ch.alpine.qhull3;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** Faces of a convex hull in compressed sparse row format: the vertices of
+ * face f are indices[offsets[f]] to indices[offsets[f + 1] - 1] in
+ * counter-clockwise order. In comparison to a list with one array per face,
+ * the faces of the hull occupy two arrays in total.
+ *
+ * <h3>Binary format</h3>
+ * The serialized form consists of the number of faces, the number of
+ * indices, the offsets, and the indices, i.e. 2 + numFaces + 1 + numIndices
+ * ints without padding. In a {@link MemorySegment}, the ints are stored in
+ * little-endian byte order. The arrays are transferred with bulk copies.
+ *
+ * @see DoubleQuickHull3D#getHullFaces()
+ * @see QuickHull3D#getHullFaces() */
+public final class HullFaces {
+  private static final ValueLayout.OfInt INT_LE = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+  /** @param faces with vertex indices of each face
+   * @return */
+  public static HullFaces of(List<int[]> faces) {
+    int[] offsets = new int[faces.size() + 1];
+    for (int face = 0; face < faces.size(); ++face)
+      offsets[face + 1] = offsets[face] + faces.get(face).length;
+    int[] indices = new int[offsets[faces.size()]];
+    for (int face = 0; face < faces.size(); ++face)
+      System.arraycopy(faces.get(face), 0, indices, offsets[face], faces.get(face).length);
+    return new HullFaces(offsets, indices);
+  }
+
+  /** @param intBuffer with faces in the binary format starting at its position,
+   * the position is advanced beyond the faces
+   * @return
+   * @throws IllegalArgumentException if the data is inconsistent */
+  public static HullFaces read(IntBuffer intBuffer) {
+    int numFaces = intBuffer.get();
+    int numIndices = intBuffer.get();
+    requireSizes(numFaces, numIndices, intBuffer.remaining());
+    int[] offsets = new int[numFaces + 1];
+    int[] indices = new int[numIndices];
+    intBuffer.get(offsets);
+    intBuffer.get(indices);
+    return requireOffsets(offsets, indices);
+  }
+
+  /** @param memorySegment with faces in the binary format
+   * @param offset in bytes
+   * @return
+   * @throws IllegalArgumentException if the data is inconsistent */
+  public static HullFaces read(MemorySegment memorySegment, long offset) {
+    int numFaces = memorySegment.get(INT_LE, offset);
+    int numIndices = memorySegment.get(INT_LE, offset + Integer.BYTES);
+    requireSizes(numFaces, numIndices, (memorySegment.byteSize() - offset) / Integer.BYTES - 2);
+    int[] offsets = new int[numFaces + 1];
+    int[] indices = new int[numIndices];
+    offset += 2 * Integer.BYTES;
+    MemorySegment.copy(memorySegment, INT_LE, offset, offsets, 0, offsets.length);
+    offset += (long) offsets.length * Integer.BYTES;
+    MemorySegment.copy(memorySegment, INT_LE, offset, indices, 0, indices.length);
+    return requireOffsets(offsets, indices);
+  }
+
+  /** the sizes are checked before the arrays are allocated
+   *
+   * @param numFaces
+   * @param numIndices
+   * @param remaining number of ints after the sizes */
+  private static void requireSizes(int numFaces, int numIndices, long remaining) {
+    if (numFaces < 0 || numIndices < 0)
+      throw new IllegalArgumentException("negative size");
+    if (remaining < numFaces + 1L + numIndices)
+      throw new IllegalArgumentException("sizes exceed data: " + numFaces + " faces, " + numIndices + " indices");
+  }
+
+  private static HullFaces requireOffsets(int[] offsets, int[] indices) {
+    if (offsets[0] != 0 || offsets[offsets.length - 1] != indices.length)
+      throw new IllegalArgumentException("offsets do not match indices");
+    for (int face = 1; face < offsets.length; ++face)
+      if (offsets[face] < offsets[face - 1])
+        throw new IllegalArgumentException("offsets decreasing at " + face);
+    return new HullFaces(offsets, indices);
+  }
+
+  // ---
+  private final int[] offsets;
+  private final int[] indices;
+
+  /** @param offsets of length number of faces + 1
+   * @param indices */
+  HullFaces(int[] offsets, int[] indices) {
+    this.offsets = offsets;
+    this.indices = indices;
+  }
+
+  /** @return number of faces */
+  public int numFaces() {
+    return offsets.length - 1;
+  }
+
+  /** @param face
+   * @return number of vertices of given face */
+  public int numVertices(int face) {
+    return offsets[face + 1] - offsets[face];
+  }
+
+  /** @return array of length number of faces + 1 with the index of the first vertex of each face,
+   * the array is not a copy */
+  public int[] getOffsets() {
+    return offsets;
+  }
+
+  /** @return vertex indices of all faces, the array is not a copy */
+  public int[] getIndices() {
+    return indices;
+  }
+
+  /** @return faces in the format of {@link ConvexHull3D#of(ch.alpine.tensor.Tensor)} */
+  public List<int[]> getFaces() {
+    List<int[]> list = new ArrayList<>(numFaces());
+    for (int face = 0; face < numFaces(); ++face)
+      list.add(Arrays.copyOfRange(indices, offsets[face], offsets[face + 1]));
+    return list;
+  }
+
+  /** @return number of bytes of the binary format */
+  public long byteSize() {
+    return (2L + offsets.length + indices.length) * Integer.BYTES;
+  }
+
+  /** @param intBuffer with at least {@link #byteSize()} / 4 ints remaining,
+   * the position is advanced beyond the faces */
+  public void write(IntBuffer intBuffer) {
+    intBuffer.put(numFaces());
+    intBuffer.put(indices.length);
+    intBuffer.put(offsets);
+    intBuffer.put(indices);
+  }
+
+  /** @param memorySegment with at least {@link #byteSize()} bytes after offset
+   * @param offset in bytes
+   * @return offset after the faces */
+  public long write(MemorySegment memorySegment, long offset) {
+    memorySegment.set(INT_LE, offset, numFaces());
+    memorySegment.set(INT_LE, offset + Integer.BYTES, indices.length);
+    offset += 2 * Integer.BYTES;
+    MemorySegment.copy(offsets, 0, memorySegment, INT_LE, offset, offsets.length);
+    offset += (long) offsets.length * Integer.BYTES;
+    MemorySegment.copy(indices, 0, memorySegment, INT_LE, offset, indices.length);
+    return offset + (long) indices.length * Integer.BYTES;
+  }
+}
@@ -0,0 +1,41 @@
+// code by jph
+package ch.alpine.qhull3;
+
+/** result of the verification of a convex hull: the maximum distance by
+ * which an edge is non-convex, and the maximum distance of an input point
+ * above the plane of a face, together with the edge, point, and face at
+ * which the maxima are attained.
+ *
+ * <p>An edge is convex if the centroids of both of its faces are below the
+ * plane of the respective other face by more than the tolerance, i.e. the
+ * edge distance is the distance of the centroid above the plane. A point is
+ * inside the hull if its distance above every face is at most 10 times the
+ * tolerance, as in {@link QuickHull3D#check(java.io.PrintStream)}.
+ *
+ * @param tolerance distance tolerance of the hull
+ * @param maxEdgeDistance maximum distance of the centroid of the opposite face of a half-edge above the plane of its face
+ * @param edgeTail index of the tail vertex of the half-edge at which the maximum is attained
+ * @param edgeHead index of the head vertex of the half-edge at which the maximum is attained
+ * @param maxPointDistance maximum distance of an input point above the plane of a face
+ * @param point index of the input point at which the maximum is attained
+ * @param face index of the face in the order of {@link DoubleQuickHull3D#getFaces()} at which the maximum is attained
+ * @see DoubleQuickHull3D#verify() */
+public record HullVerification( //
+    double tolerance, //
+    double maxEdgeDistance, int edgeTail, int edgeHead, //
+    double maxPointDistance, int point, int face) {
+  /** @return whether all edges are convex with respect to the tolerance */
+  public boolean isConvex() {
+    return maxEdgeDistance <= tolerance;
+  }
+
+  /** @return whether all input points are inside the hull with respect to 10 times the tolerance */
+  public boolean containsPoints() {
+    return maxPointDistance <= 10 * tolerance;
+  }
+
+  /** @return whether the hull is convex and contains all input points */
+  public boolean isValid() {
+    return isConvex() && containsPoints();
+  }
+}
@@ -0,0 +1,68 @@
+// code by jph
+package ch.alpine.qhull3;
+
+import java.util.Arrays;
+
+/** growable list of primitive int values that keeps its buffer after {@link #clear()} */
+final class IntList {
+  private int[] array;
+  private int size;
+
+  IntList() {
+    this(16);
+  }
+
+  /** @param capacity initial */
+  IntList(int capacity) {
+    array = new int[Math.max(1, capacity)];
+  }
+
+  void add(int value) {
+    if (size == array.length)
+      array = Arrays.copyOf(array, size * 2);
+    array[size++] = value;
+  }
+
+  int get(int index) {
+    return array[index];
+  }
+
+  void set(int index, int value) {
+    array[index] = value;
+  }
+
+  /** @param value
+   * @return whether the list contains given value, by linear search */
+  boolean contains(int value) {
+    for (int index = 0; index < size; ++index)
+      if (array[index] == value)
+        return true;
+    return false;
+  }
+
+  void addAll(IntList intList) {
+    for (int index = 0; index < intList.size; ++index)
+      add(intList.array[index]);
+  }
+
+  /** @return last element, which is removed from the list */
+  int removeLast() {
+    return array[--size];
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  void clear() {
+    size = 0;
+  }
+
+  int[] toArray() {
+    return Arrays.copyOf(array, size);
+  }
+}
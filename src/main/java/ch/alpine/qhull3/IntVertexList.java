@@ -0,0 +1,93 @@
+// code by John E. Lloyd, adapted by jph
+package ch.alpine.qhull3;
+
+/** Maintains a double-linked list of point indices for use by DoubleQuickHull3D.
+ * The links are stored in the arrays next and prev that are shared among all
+ * lists of the same hull. The value -1 terminates a list. */
+class IntVertexList {
+  private final int[] next;
+  private final int[] prev;
+  private int head = -1;
+  private int tail = -1;
+
+  /** @param next forward links shared among lists
+   * @param prev backward links shared among lists */
+  public IntVertexList(int[] next, int[] prev) {
+    this.next = next;
+    this.prev = prev;
+  }
+
+  /** Clears this list. */
+  public void clear() {
+    head = tail = -1;
+  }
+
+  /** Adds a vertex to the end of this list. */
+  public void add(int vtx) {
+    if (head < 0)
+      head = vtx;
+    else
+      next[tail] = vtx;
+    prev[vtx] = tail;
+    next[vtx] = -1;
+    tail = vtx;
+  }
+
+  /** Adds a chain of vertices to the end of this list. */
+  public void addAll(int vtx) {
+    if (head < 0)
+      head = vtx;
+    else
+      next[tail] = vtx;
+    prev[vtx] = tail;
+    while (0 <= next[vtx])
+      vtx = next[vtx];
+    tail = vtx;
+  }
+
+  /** Deletes a vertex from this list. */
+  public void delete(int vtx) {
+    if (prev[vtx] < 0)
+      head = next[vtx];
+    else
+      next[prev[vtx]] = next[vtx];
+    if (next[vtx] < 0)
+      tail = prev[vtx];
+    else
+      prev[next[vtx]] = prev[vtx];
+  }
+
+  /** Deletes a chain of vertices from this list. */
+  public void delete(int vtx1, int vtx2) {
+    if (prev[vtx1] < 0)
+      head = next[vtx2];
+    else
+      next[prev[vtx1]] = next[vtx2];
+    if (next[vtx2] < 0)
+      tail = prev[vtx1];
+    else
+      prev[next[vtx2]] = prev[vtx1];
+  }
+
+  /** Inserts a vertex into this list before another
+   * specificed vertex. */
+  public void insertBefore(int vtx, int succ) {
+    prev[vtx] = prev[succ];
+    if (prev[succ] < 0)
+      head = vtx;
+    else
+      next[prev[succ]] = vtx;
+    next[vtx] = succ;
+    prev[succ] = vtx;
+  }
+
+  /** Returns the first element in this list, or -1 if the list is empty. */
+  public int first() {
+    return head;
+  }
+
+  /** Returns true if this list is empty. */
+  public boolean isEmpty() {
+    return head < 0;
+  }
+}
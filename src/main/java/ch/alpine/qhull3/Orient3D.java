@@ -0,0 +1,163 @@
+// code by jph
+package ch.alpine.qhull3;
+
+import java.math.BigInteger;
+
+import ch.alpine.tensor.Rational;
+import ch.alpine.tensor.RealScalar;
+import ch.alpine.tensor.Scalar;
+import ch.alpine.tensor.Scalars;
+
+/** adaptive orientation predicate of four points in space with input of
+ * machine doubles.
+ *
+ * <p>The determinant is evaluated in floating point arithmetic first. The
+ * sign is accepted if the magnitude of the determinant exceeds the error
+ * bound of the evaluation, which is proportional to the permanent of the
+ * matrix, see J. R. Shewchuk: "Adaptive Precision Floating-Point Arithmetic
+ * and Fast Robust Geometric Predicates". Only if the filter is inconclusive,
+ * i.e. the four points are coplanar or almost coplanar, the determinant is
+ * evaluated exactly with {@link Rational} scalars. Every double is an
+ * integer multiple of a power of two, so that the sign is always correct. */
+enum Orient3D {
+  ;
+  /** unit roundoff 2^-53 of a double */
+  private static final double EPSILON = Math.ulp(1.0) / 2;
+  /** relative error bound of the floating point evaluation of the determinant
+   * of the differences of the points, with respect to the permanent */
+  static final double ERR_BOUND = (7 + 56 * EPSILON) * EPSILON;
+
+  /** @param ax
+   * @param ay
+   * @param az
+   * @param bx
+   * @param by
+   * @param bz
+   * @param cx
+   * @param cy
+   * @param cz
+   * @param dx
+   * @param dy
+   * @param dz
+   * @return sign of (b - a) x (c - a) . (d - a), i.e. +1 if point d is above the
+   * plane through a, b, c, which appear counter-clockwise when viewed from
+   * above, -1 if d is below the plane, and 0 if the four points are coplanar */
+  static int signum( //
+      double ax, double ay, double az, //
+      double bx, double by, double bz, //
+      double cx, double cy, double cz, //
+      double dx, double dy, double dz) {
+    double adx = ax - dx;
+    double bdx = bx - dx;
+    double cdx = cx - dx;
+    double ady = ay - dy;
+    double bdy = by - dy;
+    double cdy = cy - dy;
+    double adz = az - dz;
+    double bdz = bz - dz;
+    double cdz = cz - dz;
+    double bdxcdy = bdx * cdy;
+    double cdxbdy = cdx * bdy;
+    double cdxady = cdx * ady;
+    double adxcdy = adx * cdy;
+    double adxbdy = adx * bdy;
+    double bdxady = bdx * ady;
+    // det = (a - d) . (b - d) x (c - d) is positive if d is below the plane
+    double det = adz * (bdxcdy - cdxbdy) + bdz * (cdxady - adxcdy) + cdz * (adxbdy - bdxady);
+    double permanent = //
+        (Math.abs(bdxcdy) + Math.abs(cdxbdy)) * Math.abs(adz) + //
+            (Math.abs(cdxady) + Math.abs(adxcdy)) * Math.abs(bdz) + //
+            (Math.abs(adxbdy) + Math.abs(bdxady)) * Math.abs(cdz);
+    double errBound = ERR_BOUND * permanent;
+    if (errBound < det)
+      return -1;
+    if (det < -errBound)
+      return +1;
+    return exact(ax, ay, az, bx, by, bz, cx, cy, cz, dx, dy, dz);
+  }
+
+  /** @return sign of (b - a) x (c - a) . (d - a) evaluated in exact arithmetic */
+  static int exact( //
+      double ax, double ay, double az, //
+      double bx, double by, double bz, //
+      double cx, double cy, double cz, //
+      double dx, double dy, double dz) {
+    // points with one equal coordinate are in an axis-aligned plane, which is typical for grids
+    if (ax == dx && bx == dx && cx == dx || //
+        ay == dy && by == dy && cy == dy || //
+        az == dz && bz == dz && cz == dz)
+      return 0;
+    // two coincident points, or three points on an axis-parallel line, as on the edges of a cube
+    if (equals(ax, ay, az, bx, by, bz) || equals(ax, ay, az, cx, cy, cz) || equals(ax, ay, az, dx, dy, dz) || //
+        equals(bx, by, bz, cx, cy, cz) || equals(bx, by, bz, dx, dy, dz) || equals(cx, cy, cz, dx, dy, dz) || //
+        isAxisLine(ax, ay, az, bx, by, bz, cx, cy, cz) || isAxisLine(ax, ay, az, bx, by, bz, dx, dy, dz) || //
+        isAxisLine(ax, ay, az, cx, cy, cz, dx, dy, dz) || isAxisLine(bx, by, bz, cx, cy, cz, dx, dy, dz))
+      return 0;
+    // every double is an integer multiple of 2^shift with shift the least exponent,
+    // so that the determinant is evaluated in integers scaled by a positive factor
+    int shift = Math.min(Math.min(Math.min(exponent(ax), exponent(ay)), Math.min(exponent(az), exponent(bx))), //
+        Math.min(Math.min(Math.min(exponent(by), exponent(bz)), Math.min(exponent(cx), exponent(cy))), //
+            Math.min(Math.min(exponent(cz), exponent(dx)), Math.min(exponent(dy), exponent(dz)))));
+    Scalar adx = integer(ax, shift).subtract(integer(dx, shift));
+    Scalar bdx = integer(bx, shift).subtract(integer(dx, shift));
+    Scalar cdx = integer(cx, shift).subtract(integer(dx, shift));
+    Scalar ady = integer(ay, shift).subtract(integer(dy, shift));
+    Scalar bdy = integer(by, shift).subtract(integer(dy, shift));
+    Scalar cdy = integer(cy, shift).subtract(integer(dy, shift));
+    Scalar adz = integer(az, shift).subtract(integer(dz, shift));
+    Scalar bdz = integer(bz, shift).subtract(integer(dz, shift));
+    Scalar cdz = integer(cz, shift).subtract(integer(dz, shift));
+    Scalar det = adz.multiply(bdx.multiply(cdy).subtract(cdx.multiply(bdy))) //
+        .add(bdz.multiply(cdx.multiply(ady).subtract(adx.multiply(cdy)))) //
+        .add(cdz.multiply(adx.multiply(bdy).subtract(bdx.multiply(ady))));
+    if (Scalars.lessThan(RealScalar.ZERO, det))
+      return -1;
+    if (Scalars.lessThan(det, RealScalar.ZERO))
+      return +1;
+    return 0;
+  }
+
+  private static boolean equals(double px, double py, double pz, double qx, double qy, double qz) {
+    return px == qx && py == qy && pz == qz;
+  }
+
+  /** @return whether the three points p, q, r agree in two coordinates */
+  private static boolean isAxisLine( //
+      double px, double py, double pz, //
+      double qx, double qy, double qz, //
+      double rx, double ry, double rz) {
+    boolean x = px == qx && px == rx;
+    boolean y = py == qy && py == ry;
+    boolean z = pz == qz && pz == rz;
+    return x && (y || z) || y && z;
+  }
+
+  /** @param value finite
+   * @return exponent of the least significant bit of the significand of given value */
+  static int exponent(double value) {
+    if (value == 0)
+      return Integer.MAX_VALUE;
+    int exponent = Math.getExponent(value);
+    return (exponent < Double.MIN_EXPONENT ? Double.MIN_EXPONENT : exponent) - 52 //
+        + Long.numberOfTrailingZeros(significand(value));
+  }
+
+  /** @param value finite
+   * @param shift at most {@link #exponent(double)} of given value
+   * @return integer value / 2^shift as rational scalar */
+  static Scalar integer(double value, int shift) {
+    if (value == 0)
+      return RealScalar.ZERO;
+    int exponent = Math.getExponent(value);
+    BigInteger bigInteger = BigInteger.valueOf(significand(value)) //
+        .shiftLeft((exponent < Double.MIN_EXPONENT ? Double.MIN_EXPONENT : exponent) - 52 - shift);
+    return Rational.of(value < 0 ? bigInteger.negate() : bigInteger, BigInteger.ONE);
+  }
+
+  /** @param value non-zero finite
+   * @return significand of given value including the implicit leading bit of normal numbers */
+  private static long significand(double value) {
+    long bits = Double.doubleToRawLongBits(value) & 0x000fffffffffffffL;
+    return Math.getExponent(value) < Double.MIN_EXPONENT ? bits : bits | 0x0010000000000000L;
+  }
+}
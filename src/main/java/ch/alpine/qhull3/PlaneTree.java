@@ -0,0 +1,182 @@
+// code by jph
+package ch.alpine.qhull3;
+
+import java.util.Arrays;
+
+/** hierarchy of the planes of the faces of a convex hull, for the query of
+ * the face that a point is farthest above, at cost that is typically
+ * logarithmic instead of linear in the number of faces.
+ *
+ * <p>The faces are partitioned by the direction of their normal into the
+ * cells of a cube map, see {@link StaticHelper#directionCell(double, double, double, int)}.
+ * The cells of resolution 1, 2, 4, ... form a quadtree on each of the six
+ * sides of the cube. On a convex hull, faces with similar normals are close
+ * to each other. Each cell stores a plane with unit normal c through an
+ * anchor point a, which is the mean of the centroids of its faces, the
+ * maximum deviation r = |n - c| of the normals n of its faces, and the
+ * maximum distance e of the anchor above the planes of its faces. Then the
+ * distance of a point p above any face in the cell is bounded from above by
+ * c . (p - a) + r |p - a| + e, and cells whose bound does not exceed the
+ * current maximum are skipped. For points close to the faces of the cell,
+ * the bound exceeds the actual distance by terms of second order in the
+ * size of the cell.
+ *
+ * @see DoubleQuickHull3D#verify() */
+final class PlaneTree {
+  /** approximate number of faces per cell at the finest resolution */
+  private static final int LEAF_SIZE = 8;
+  private static final int MAX_RESOLUTION = 256;
+  /** number of doubles per cell: cx, cy, cz, ax, ay, az, r, e */
+  private static final int NODE = 8;
+  /** multiple of the precision of a double that bounds the relative rounding error of the distances */
+  private static final double SLACK = 32 * Math.ulp(1.0);
+  // ---
+  /** magnitude of the anchors and of the offsets of the planes */
+  private final double scale;
+  /** resolution at the finest level is 1 << depth */
+  private final int depth;
+  /** cells of resolution 1 << level at nodes[level] */
+  private final double[][] nodes;
+  /** faces of cell k at the finest level are leafStart[k] to leafStart[k + 1] - 1 */
+  private final int[] leafStart;
+  private final double[] leafPlanes;
+  private final int[] leafFaces;
+
+  /** @param planes coefficients {nx, ny, nz, offset} of each face
+   * with unit normal as in {@link DoubleQuickHull3D#getPlanes()}
+   * @param centroids {x, y, z} of each face */
+  PlaneTree(double[] planes, double[] centroids) {
+    int numFaces = planes.length / 4;
+    int level = 0;
+    while (6 * (1 << level) * (1 << level) * LEAF_SIZE < numFaces && (1 << level) < MAX_RESOLUTION)
+      ++level;
+    depth = level;
+    int resolution = 1 << depth;
+    int numLeafs = 6 * resolution * resolution;
+    // partition the faces into the cells of the finest level by counting sort
+    int[] cells = new int[numFaces];
+    leafStart = new int[numLeafs + 1];
+    for (int face = 0; face < numFaces; ++face) {
+      int i = face * 4;
+      cells[face] = StaticHelper.directionCell(planes[i], planes[i + 1], planes[i + 2], resolution);
+      ++leafStart[cells[face] + 1];
+    }
+    for (int cell = 0; cell < numLeafs; ++cell)
+      leafStart[cell + 1] += leafStart[cell];
+    int[] fill = Arrays.copyOf(leafStart, numLeafs);
+    leafPlanes = new double[numFaces * 4];
+    leafFaces = new int[numFaces];
+    for (int face = 0; face < numFaces; ++face) {
+      int k = fill[cells[face]]++;
+      System.arraycopy(planes, face * 4, leafPlanes, k * 4, 4);
+      leafFaces[k] = face;
+    }
+    nodes = new double[depth + 1][];
+    int[] cell = new int[numFaces];
+    double offset = 0;
+    double anchor = 0;
+    for (level = 0; level <= depth; ++level) {
+      int res = 1 << level;
+      int shift = depth - level;
+      double[] node = new double[6 * res * res * NODE];
+      int[] count = new int[6 * res * res];
+      for (int face = 0; face < numFaces; ++face) {
+        // the cell of resolution res that contains the cell of the face at the finest level
+        int leaf = cells[face];
+        int side = leaf / (resolution * resolution);
+        int i = (leaf / resolution % resolution) >> shift;
+        int j = (leaf % resolution) >> shift;
+        cell[face] = (side * res + i) * res + j;
+        int n = cell[face] * NODE;
+        for (int d = 0; d < 3; ++d) {
+          node[n + d] += planes[face * 4 + d];
+          node[n + 3 + d] += centroids[face * 3 + d];
+        }
+        ++count[cell[face]];
+      }
+      for (int index = 0; index < count.length; ++index) {
+        int n = index * NODE;
+        double norm = Math.hypot(Math.hypot(node[n], node[n + 1]), node[n + 2]);
+        if (0 < norm)
+          for (int d = 0; d < 3; ++d) {
+            node[n + d] /= norm;
+            node[n + 3 + d] /= count[index];
+          }
+        // empty cells are skipped by every query
+        node[n + 7] = Double.NEGATIVE_INFINITY;
+      }
+      for (int face = 0; face < numFaces; ++face) {
+        int n = cell[face] * NODE;
+        int i = face * 4;
+        double ax = node[n + 3];
+        double ay = node[n + 4];
+        double az = node[n + 5];
+        node[n + 6] = Math.max(node[n + 6], //
+            Math.hypot(Math.hypot(planes[i] - node[n], planes[i + 1] - node[n + 1]), planes[i + 2] - node[n + 2]));
+        node[n + 7] = Math.max(node[n + 7], planes[i] * ax + planes[i + 1] * ay + planes[i + 2] * az - planes[i + 3]);
+        offset = Math.max(offset, Math.abs(planes[i + 3]));
+        anchor = Math.max(anchor, Math.abs(ax) + Math.abs(ay) + Math.abs(az));
+      }
+      nodes[level] = node;
+    }
+    scale = offset + anchor;
+  }
+
+  /** @return buffer for {@link #farthestPlane(double, double, double, double, int[])}
+   * that may be reused for any number of queries of the same thread */
+  int[] stack() {
+    return new int[2 * (6 + 3 * (depth + 1))];
+  }
+
+  /** @param x
+   * @param y
+   * @param z
+   * @param threshold
+   * @param stack from {@link #stack()}
+   * @return index of the face that the given point is farthest above, if the
+   * distance exceeds given threshold, or -1 */
+  int farthestPlane(double x, double y, double z, double threshold, int[] stack) {
+    // the rounding errors of the bound and of the distance are proportional to the magnitudes
+    double slack = SLACK * (scale + Math.abs(x) + Math.abs(y) + Math.abs(z));
+    double max = threshold;
+    int argMax = -1;
+    int size = 0;
+    for (int root = 5; 0 <= root; --root) {
+      stack[size++] = 0;
+      stack[size++] = root;
+    }
+    while (0 < size) {
+      int cell = stack[--size];
+      int level = stack[--size];
+      double[] node = nodes[level];
+      int i = cell * NODE;
+      double dx = x - node[i + 3];
+      double dy = y - node[i + 4];
+      double dz = z - node[i + 5];
+      double bound = node[i] * dx + node[i + 1] * dy + node[i + 2] * dz //
+          + node[i + 6] * Math.sqrt(dx * dx + dy * dy + dz * dz) + node[i + 7];
+      if (bound + slack <= max)
+        continue;
+      if (level == depth)
+        for (int k = leafStart[cell]; k < leafStart[cell + 1]; ++k) {
+          int j = k * 4;
+          // identical to HalfEdgeMesh#distanceToPlane
+          double dist = leafPlanes[j] * x + leafPlanes[j + 1] * y + leafPlanes[j + 2] * z - leafPlanes[j + 3];
+          if (max < dist) {
+            max = dist;
+            argMax = leafFaces[k];
+          }
+        }
+      else {
+        int res = 1 << level;
+        int res2 = res * 2;
+        int base = (cell / (res * res) * res2 + 2 * (cell / res % res)) * res2 + 2 * (cell % res);
+        for (int child = 0; child < 4; ++child) {
+          stack[size++] = level + 1;
+          stack[size++] = base + (child >> 1) * res2 + (child & 1);
+        }
+      }
+    }
+    return argMax;
+  }
+}
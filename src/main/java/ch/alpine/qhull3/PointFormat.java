@@ -0,0 +1,56 @@
+// code by jph
+package ch.alpine.qhull3;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/** binary layout of points in a file or segment of memory: the x, y, and z
+ * coordinate of each point are stored consecutively in little-endian byte
+ * order without header or padding
+ *
+ * @see ConvexHull3D#of(java.nio.file.Path, PointFormat) */
+public enum PointFormat {
+  /** IEEE 754 double precision, 24 bytes per point */
+  FLOAT64(Double.BYTES),
+  /** IEEE 754 single precision, 12 bytes per point */
+  FLOAT32(Float.BYTES);
+
+  private static final ValueLayout.OfDouble FLOAT64_LE = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+  private static final ValueLayout.OfFloat FLOAT32_LE = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+  // ---
+  private final int bytes;
+
+  PointFormat(int bytes) {
+    this.bytes = bytes;
+  }
+
+  /** @return number of bytes per point */
+  public int bytesPerPoint() {
+    return 3 * bytes;
+  }
+
+  /** @param segment
+   * @return number of points in given segment
+   * @throws IllegalArgumentException if the size of the segment is not a multiple
+   * of {@link #bytesPerPoint()}, or if the number of points exceeds the range of int */
+  public int numPoints(MemorySegment segment) {
+    long byteSize = segment.byteSize();
+    if (byteSize % bytesPerPoint() != 0)
+      throw new IllegalArgumentException("segment size not a multiple of " + bytesPerPoint());
+    long numPoints = byteSize / bytesPerPoint();
+    if (Integer.MAX_VALUE < numPoints)
+      throw new IllegalArgumentException("too many points: " + numPoints);
+    return (int) numPoints;
+  }
+
+  /** @param segment
+   * @param index of coordinate, i.e. 3 * point + dimension
+   * @return coordinate as double */
+  double get(MemorySegment segment, long index) {
+    return switch (this) {
+    case FLOAT64 -> segment.getAtIndex(FLOAT64_LE, index);
+    case FLOAT32 -> segment.getAtIndex(FLOAT32_LE, index);
+    };
+  }
+}
@@ -14,6 +14,7 @@ import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 import ch.alpine.tensor.RealScalar;
 import ch.alpine.tensor.Scalar;
@@ -70,7 +71,7 @@ import ch.alpine.tensor.sca.pow.Sqrt;
  *
  * <h3>Merged Faces</h3> The merging of faces means that the faces returned by
  * QuickHull3D may be convex polygons instead of triangles. If triangles are
- * desired, the application may the faces, but
+ * desired, the application may use {@link #getTriangles()}, but
  * it should be noted that this may result in triangles which are very small or
  * thin and hence difficult to perform reliable convexity tests on. In other
  * words, triangulating a merged face is likely to restore the numerical
@@ -98,7 +99,10 @@ public class QuickHull3D {
   private final List<Face> faces = new ArrayList<>();
   private final VertexList unclaimed = new VertexList();
   private final VertexList claimed = new VertexList();
+  /** pairs of half-edges of the depth-first search of the horizon */
+  private final List<HalfEdge> horizonStack = new ArrayList<>();
   private boolean debug = false;
+  private Validation validation = Validation.CHEAP;
   private Scalar explicitTolerance = AUTOMATIC_TOLERANCE;
   private Scalar tolerance = RealScalar.ZERO;
 
@@ -155,6 +159,21 @@ public class QuickHull3D {
     debug = enable;
   }
 
+  /** @return level of the consistency checks
+   * @see #setValidation(Validation) */
+  public Validation getValidation() {
+    return validation;
+  }
+
+  /** Sets the level of the consistency checks during the construction of the
+   * hull. The default is {@link Validation#CHEAP}. The level does not affect
+   * {@link #check(PrintStream)}.
+   *
+   * @param validation */
+  public void setValidation(Validation validation) {
+    this.validation = Objects.requireNonNull(validation);
+  }
+
   /** Returns the distance tolerance that was used for the most recently
    * computed hull. The distance tolerance is used to determine when
    * faces are unambiguously convex with respect to each other, and when
@@ -385,6 +404,52 @@ public class QuickHull3D {
     return faces.stream().map(Face::getIndices).toList();
   }
 
+  /** @return number of triangles of {@link #getTriangles()} */
+  public int getNumTriangles() {
+    int numTriangles = 0;
+    for (Face face : faces)
+      numTriangles += face.numVertices() - 2;
+    return numTriangles;
+  }
+
+  /** Each face of the hull is triangulated as a fan around its first vertex.
+   * The triangles are emitted directly from the half-edges of the faces,
+   * the hull itself is not modified.
+   *
+   * @return vertex indices of {@link #getNumTriangles()} triangles, three
+   * consecutive entries per triangle in counter-clockwise order, with the
+   * triangles of each face in the order of {@link #getFaces()} */
+  public int[] getTriangles() {
+    int[] triangles = new int[3 * getNumTriangles()];
+    int index = 0;
+    for (Face face : faces) {
+      int v0 = face.he0.head().index;
+      for (HalfEdge hedge = face.he0.next(); hedge.next() != face.he0; hedge = hedge.next()) {
+        triangles[index++] = v0;
+        triangles[index++] = hedge.head().index;
+        triangles[index++] = hedge.next().head().index;
+      }
+    }
+    return triangles;
+  }
+
+  /** @return faces in the order and format of {@link #getFaces()} */
+  public HullFaces getHullFaces() {
+    int[] offsets = new int[faces.size() + 1];
+    for (int index = 0; index < faces.size(); ++index)
+      offsets[index + 1] = offsets[index] + faces.get(index).numVertices();
+    int[] indices = new int[offsets[faces.size()]];
+    int offset = 0;
+    for (Face face : faces) {
+      HalfEdge hedge = face.he0;
+      do {
+        indices[offset++] = hedge.head().index;
+        hedge = hedge.next();
+      } while (hedge != face.he0);
+    }
+    return new HullFaces(offsets, indices);
+  }
+
   private void resolveUnclaimedPoints(FaceList newFaces) {
     Vertex vtxNext = unclaimed.first();
     for (Vertex vtx = vtxNext; vtx != null; vtx = vtxNext) {
@@ -433,46 +498,53 @@ public class QuickHull3D {
       }
   }
 
+  /** @param he
+   * @return distance of the centroid of the opposite face of the half-edge
+   * above the plane of the face of the half-edge, see {@link HalfEdge#oppFaceDistance()} */
   private static double oppFaceDistance(HalfEdge he) {
-    return he.face.distanceToPlane(he.opposite.face.centroid()).number().doubleValue();
+    return he.oppFaceDistance();
+  }
+
+  /** @param face
+   * @param hedge of face
+   * @param mergeType
+   * @return whether the opposite face of the half-edge is to be merged into the face */
+  private boolean isMerge(Face face, HalfEdge hedge, MergeType mergeType) {
+    double tol = tolerance.number().doubleValue();
+    if (mergeType.equals(MergeType.NONCONVEX)) // then merge faces if they are definitively non-convex
+      return oppFaceDistance(hedge) > -tol || oppFaceDistance(hedge.opposite) > -tol;
+    // NONCONVEX_WRT_LARGER_FACE
+    // merge faces if they are parallel or non-convex
+    // wrt to the larger face
+    return Scalars.lessThan(hedge.oppositeFace().area, face.area) //
+        ? oppFaceDistance(hedge) > -tol
+        : oppFaceDistance(hedge.opposite) > -tol;
   }
 
+  private void mergeAdjacentFace(Face face, HalfEdge hedge) {
+    if (debug)
+      System.out.println("  merging " + face.getVertexString() + "  and  " + hedge.oppositeFace().getVertexString());
+    for (Face discardedFace : face.mergeAdjacentFace(hedge, validation))
+      deleteFacePoints(discardedFace, face);
+    if (debug)
+      System.out.println("  result: " + face.getVertexString());
+  }
+
+  /** @param face
+   * @param mergeType
+   * @return whether a merge of the face with a neighbour took place */
   private boolean doAdjacentMerge(Face face, MergeType mergeType) {
     HalfEdge hedge = face.he0;
     boolean convex = true;
     do {
-      Face oppFace = hedge.oppositeFace();
-      boolean merge = false;
-      if (mergeType.equals(MergeType.NONCONVEX)) { // then merge faces if they are definitively non-convex
-        if (oppFaceDistance(hedge) > -tolerance.number().doubleValue() || oppFaceDistance(hedge.opposite) > -tolerance.number().doubleValue())
-          merge = true;
-      } else { // NONCONVEX_WRT_LARGER_FACE
-        // merge faces if they are parallel or non-convex
-        // wrt to the larger face; otherwise, just mark
-        // the face non-convex for the second pass.
-        if (Scalars.lessThan(oppFace.area, face.area)) {
-          if (oppFaceDistance(hedge) > -tolerance.number().doubleValue()) {
-            merge = true;
-          } else if (oppFaceDistance(hedge.opposite) > -tolerance.number().doubleValue()) {
-            convex = false;
-          }
-        } else {
-          if (oppFaceDistance(hedge.opposite) > -tolerance.number().doubleValue()) {
-            merge = true;
-          } else if (oppFaceDistance(hedge) > -tolerance.number().doubleValue()) {
-            convex = false;
-          }
-        }
-      }
-      if (merge) {
-        if (debug)
-          System.out.println("  merging " + face.getVertexString() + "  and  " + oppFace.getVertexString());
-        for (Face discardedFace : face.mergeAdjacentFace(hedge))
-          deleteFacePoints(discardedFace, face);
-        if (debug)
-          System.out.println("  result: " + face.getVertexString());
+      if (isMerge(face, hedge, mergeType)) {
+        mergeAdjacentFace(face, hedge);
         return true;
       }
+      // the face is marked non-convex for the second pass
+      if (mergeType.equals(MergeType.NONCONVEX_WRT_LARGER_FACE) && //
+          (oppFaceDistance(hedge) > -tolerance.number().doubleValue() || oppFaceDistance(hedge.opposite) > -tolerance.number().doubleValue()))
+        convex = false;
       hedge = hedge.next();
     } while (hedge != face.he0);
     if (!convex)
@@ -480,30 +552,53 @@ public class QuickHull3D {
     return false;
   }
 
-  private void calculateHorizon(Tensor eyePnt, HalfEdge edge0, Face face, List<HalfEdge> horizon) {
-    deleteFacePoints(face, null);
-    face.mark = Face.DELETED;
-    if (debug)
-      System.out.println("  visiting face " + face.getVertexString());
-    HalfEdge edge;
-    if (edge0 == null) {
-      edge0 = face.getEdge(0);
-      edge = edge0;
-    } else
-      edge = edge0.next();
-    do {
+  /** Depth-first search of the faces visible from the eye point with an
+   * explicit stack instead of recursion. The stack holds pairs of the
+   * half-edge at which the traversal of a face ends, and the next half-edge
+   * to traverse. The faces and the horizon edges are visited in the same
+   * order as by a recursive search.
+   *
+   * @param eyePnt
+   * @param face that is visible from the eye point
+   * @param horizon */
+  private void calculateHorizon(Tensor eyePnt, Face face, List<HalfEdge> horizon) {
+    horizonStack.clear();
+    visitHorizonFace(null, face);
+    while (!horizonStack.isEmpty()) {
+      HalfEdge edge = horizonStack.removeLast();
+      HalfEdge next = edge.next();
+      if (next == horizonStack.getLast())
+        horizonStack.removeLast();
+      else
+        horizonStack.add(next);
       Face oppFace = edge.oppositeFace();
       if (oppFace.mark == Face.VISIBLE) {
         if (Scalars.lessThan(tolerance, oppFace.distanceToPlane(eyePnt)))
-          calculateHorizon(eyePnt, edge.getOpposite(), oppFace, horizon);
+          visitHorizonFace(edge.getOpposite(), oppFace);
         else {
           horizon.add(edge);
           if (debug)
             System.out.println("  adding horizon edge " + edge.getVertexString());
         }
       }
-      edge = edge.next();
-    } while (edge != edge0);
+    }
+  }
+
+  /** @param edge0 half-edge of face via which the face is entered, or null
+   * @param face */
+  private void visitHorizonFace(HalfEdge edge0, Face face) {
+    deleteFacePoints(face, null);
+    face.mark = Face.DELETED;
+    if (debug)
+      System.out.println("  visiting face " + face.getVertexString());
+    if (edge0 == null) {
+      edge0 = face.getEdge(0);
+      horizonStack.add(edge0);
+      horizonStack.add(edge0);
+    } else {
+      horizonStack.add(edge0);
+      horizonStack.add(edge0.next());
+    }
   }
 
   private HalfEdge addAdjoiningFace(Vertex eyeVtx, HalfEdge he) {
@@ -554,7 +649,7 @@ public class QuickHull3D {
       System.out.println(" which is " + eyeVtx.face.distanceToPlane(eyeVtx.pnt) + " above face " + eyeVtx.face.getVertexString());
     }
     removePointFromFace(eyeVtx, eyeVtx.face);
-    calculateHorizon(eyeVtx.pnt, null, eyeVtx.face, horizon);
+    calculateHorizon(eyeVtx.pnt, eyeVtx.face, horizon);
     FaceList newFaces = addNewFaces(eyeVtx, horizon);
     // first merge pass ... merge faces which are non-convex
     // as determined by the larger face
@@ -578,11 +673,11 @@ public class QuickHull3D {
     return pointBuffer.length;
   }
 
-  private static boolean checkFaceConvexity(Face face, Scalar tol, PrintStream ps) {
+  private boolean checkFaceConvexity(Face face, Scalar tol, PrintStream ps) {
     double dist;
+    face.checkConsistency();
     HalfEdge he = face.he0;
     do {
-      face.checkConsistency();
       // make sure edge is convex
       dist = oppFaceDistance(he);
       if (dist > tol.number().doubleValue()) {
@@ -3,6 +3,7 @@ package ch.alpine.qhull3;
 
 import ch.alpine.tensor.RealScalar;
 import ch.alpine.tensor.Scalar;
+import ch.alpine.tensor.nrm.Vector2Norm;
 
 enum StaticHelper {
   ;
@@ -10,4 +11,69 @@ enum StaticHelper {
   static final Scalar DOUBLE_PREC = RealScalar.of(Math.nextUp(1.0) - 1.0);
   static final Scalar QUADRO_PREC = DOUBLE_PREC.add(DOUBLE_PREC);
   static final Scalar _3_PREC = QUADRO_PREC.add(DOUBLE_PREC);
+
+  /** The entries are scaled by the maximum magnitude before the sum of
+   * squares, as in {@link Vector2Norm#of(ch.alpine.tensor.Tensor)}, so that
+   * {@link DoubleQuickHull3D} computes the same normals as {@link QuickHull3D}
+   * to the last bit.
+   *
+   * @param x
+   * @param y
+   * @param z
+   * @return 2-norm of the vector {x, y, z} */
+  static double norm(double x, double y, double z) {
+    double ax = Math.abs(x);
+    double ay = Math.abs(y);
+    double az = Math.abs(z);
+    double max = Math.max(Math.max(ax, ay), az);
+    if (max == 0)
+      return max;
+    ax /= max;
+    ay /= max;
+    az /= max;
+    return max * Math.sqrt(ax * ax + ay * ay + az * az);
+  }
+
+  /** The directions are partitioned by the cells of a cube map, i.e. the six
+   * sides of a cube are each divided into resolution x resolution cells. The
+   * cells of resolution 2 * r refine the cells of resolution r, in that
+   * cell (side, i, j) contains the cells (side, 2 * i + di, 2 * j + dj) for
+   * di, dj in {0, 1}.
+   *
+   * @param dx
+   * @param dy
+   * @param dz
+   * @param resolution positive
+   * @return index (side * resolution + i) * resolution + j of the cell of the
+   * given direction, or 0 for the zero vector */
+  static int directionCell(double dx, double dy, double dz, int resolution) {
+    double ax = Math.abs(dx);
+    double ay = Math.abs(dy);
+    double az = Math.abs(dz);
+    int side;
+    double u;
+    double v;
+    double max;
+    if (ay <= ax && az <= ax) {
+      side = dx < 0 ? 1 : 0;
+      u = dy;
+      v = dz;
+      max = ax;
+    } else if (az <= ay) {
+      side = dy < 0 ? 3 : 2;
+      u = dz;
+      v = dx;
+      max = ay;
+    } else {
+      side = dz < 0 ? 5 : 4;
+      u = dx;
+      v = dy;
+      max = az;
+    }
+    if (max == 0)
+      return 0;
+    int i = Math.min((int) ((u / max + 1) * 0.5 * resolution), resolution - 1);
+    int j = Math.min((int) ((v / max + 1) * 0.5 * resolution), resolution - 1);
+    return (side * resolution + i) * resolution + j;
+  }
 }
@@ -0,0 +1,172 @@
+// code by jph
+package ch.alpine.qhull3;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/** Convex hull of a sequence of points that is too large to be held in memory.
+ *
+ * <p>The points are collected in a buffer. Once the buffer holds a chunk of
+ * points, the hull of the vertices of the current hull together with the
+ * points of the buffer is computed by {@link DoubleQuickHull3D}. Only the
+ * vertices of that hull are retained, the other points are dropped. The
+ * memory is proportional to the number of vertices of the hull plus the
+ * size of a chunk, and does not depend on the number of points.
+ *
+ * <p>As long as the retained points are degenerate, i.e. coincident, colinear,
+ * or coplanar, all of them are retained.
+ *
+ * <p>The vertices are identified by their position in the sequence of points.
+ * Each computation derives its distance tolerance from the extent of its own
+ * points, which may be smaller than the extent of all points. A point that is
+ * dropped is inside the hull at that time up to the tolerance at that time.
+ * Hence, every point is inside the final hull up to the sum of the tolerances
+ * of the computations so far, and the faces may differ from the faces that
+ * {@link DoubleQuickHull3D} computes from all points at once, where points
+ * are close to coplanar. An instance is not thread-safe.
+ *
+ * @see ConvexHull3D#streaming(Iterator) */
+public final class StreamingHull3D implements Consumer<double[]> {
+  /** default number of points per chunk */
+  public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+  /** @param iterator of arrays with the x, y, and z coordinates of one or more points
+   * @param chunkSize positive
+   * @return hull of all points provided by given iterator */
+  public static StreamingHull3D of(Iterator<double[]> iterator, int chunkSize) {
+    StreamingHull3D streamingHull3D = new StreamingHull3D(chunkSize);
+    iterator.forEachRemaining(streamingHull3D);
+    return streamingHull3D;
+  }
+
+  // ---
+  private final DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D();
+  private final int chunkSize;
+  /** x, y, and z coordinates of the retained points followed by the points of the buffer */
+  private double[] coords;
+  /** position in the sequence of each point in coords */
+  private long[] positions;
+  /** number of retained points */
+  private int retained = 0;
+  /** number of retained points plus number of points in the buffer */
+  private int size = 0;
+  private long count = 0;
+  /** faces of the hull of the retained points, or null */
+  private List<int[]> faces = null;
+
+  /** @param chunkSize number of points in the buffer that trigger the
+   * computation of the hull, positive */
+  public StreamingHull3D(int chunkSize) {
+    if (chunkSize <= 0)
+      throw new IllegalArgumentException("chunk size not positive");
+    this.chunkSize = chunkSize;
+    coords = new double[Math.max(chunkSize, 4) * 3];
+    positions = new long[Math.max(chunkSize, 4)];
+    doubleQuickHull3D.setPrefilter(true);
+  }
+
+  /** hull with {@link #DEFAULT_CHUNK_SIZE} */
+  public StreamingHull3D() {
+    this(DEFAULT_CHUNK_SIZE);
+  }
+
+  /** @param x
+   * @param y
+   * @param z */
+  public void accept(double x, double y, double z) {
+    if (positions.length == size) {
+      int capacity = Math.max(size * 2, retained + chunkSize);
+      coords = Arrays.copyOf(coords, capacity * 3);
+      positions = Arrays.copyOf(positions, capacity);
+    }
+    coords[size * 3] = x;
+    coords[size * 3 + 1] = y;
+    coords[size * 3 + 2] = z;
+    positions[size] = count++;
+    ++size;
+    faces = null;
+    if (retained + chunkSize <= size)
+      fold();
+  }
+
+  /** @param points x, y, and z coordinates of one or more points
+   * @throws IllegalArgumentException if the length of points is not a multiple of three */
+  @Override
+  public void accept(double[] points) {
+    if (points.length % 3 != 0)
+      throw new IllegalArgumentException("Coordinate array length not a multiple of three");
+    for (int index = 0; index < points.length; index += 3)
+      accept(points[index], points[index + 1], points[index + 2]);
+  }
+
+  /** Computes the hull of the retained points and the points of the buffer,
+   * and retains only the vertices of the hull. */
+  private void fold() {
+    try {
+      doubleQuickHull3D.reset(coords, 0, size);
+      doubleQuickHull3D.buildHull();
+    } catch (IllegalArgumentException illegalArgumentException) {
+      // points are degenerate, all of them are retained
+      retained = size;
+      return;
+    }
+    int[] vertices = doubleQuickHull3D.getVertexIndices();
+    int[] inverse = new int[size];
+    // the indices of the vertices are ascending, which allows to compact in place
+    for (int index = 0; index < vertices.length; ++index) {
+      int vertex = vertices[index];
+      System.arraycopy(coords, vertex * 3, coords, index * 3, 3);
+      positions[index] = positions[vertex];
+      inverse[vertex] = index;
+    }
+    faces = doubleQuickHull3D.getFaces();
+    for (int[] face : faces)
+      for (int k = 0; k < face.length; ++k)
+        face[k] = inverse[face[k]];
+    retained = size = vertices.length;
+  }
+
+  /** @return faces of the hull of all points with indices of {@link #getVertices()}
+   * in counter-clockwise order
+   * @throws IllegalArgumentException if the points appear to be coincident,
+   * colinear, or coplanar */
+  public List<int[]> getFaces() {
+    if (Objects.isNull(faces)) {
+      fold();
+      if (Objects.isNull(faces)) {
+        // the points are degenerate, the hull throws the exception that explains why
+        doubleQuickHull3D.reset(coords, 0, size);
+        doubleQuickHull3D.buildHull();
+      }
+    }
+    return faces.stream().map(int[]::clone).toList();
+  }
+
+  /** @return coordinates {x, y, z} of the vertices of the hull of all points
+   * @throws IllegalArgumentException if the points appear to be coincident,
+   * colinear, or coplanar */
+  public double[][] getVertices() {
+    getFaces();
+    return IntStream.range(0, size) //
+        .mapToObj(index -> Arrays.copyOfRange(coords, index * 3, index * 3 + 3)) //
+        .toArray(double[][]::new);
+  }
+
+  /** @return positions in the sequence of points of the vertices of the hull
+   * in ascending order, in the order of {@link #getVertices()}
+   * @throws IllegalArgumentException if the points appear to be coincident,
+   * colinear, or coplanar */
+  public long[] getVertexPositions() {
+    getFaces();
+    return Arrays.copyOf(positions, size);
+  }
+
+  /** @return number of points provided to this instance */
+  public long count() {
+    return count;
+  }
+}
@@ -0,0 +1,21 @@
+// code by jph
+package ch.alpine.qhull3;
+
+/** level of the consistency checks of the half-edge structure during the
+ * construction of the hull. The level does not affect the checks performed
+ * by {@link QuickHull3D#check(java.io.PrintStream)}, which always test the
+ * half-edges and the convexity of every face, and that every input point
+ * is inside the hull.
+ *
+ * @see QuickHull3D#setValidation(Validation) */
+public enum Validation {
+  /** no checks during the construction */
+  NONE,
+  /** checks during the construction at constant cost per merge of two faces:
+   * the merged face has at least three vertices, and the half-edges at which
+   * the rings of the two faces are joined are reflected by their opposites. */
+  CHEAP,
+  /** after every merge, the entire rings of the modified faces are checked
+   * and their vertices are recounted */
+  FULL
+}
@@ -0,0 +1,36 @@
+// code by jph
+package ch.alpine.qhull3;
+
+/** instances of {@link DoubleQuickHull3D} that are reused as workspace,
+ * one per thread, shared by {@link ConvexHull3D} and {@link ConvexHull3DBatch}.
+ *
+ * <p>The arrays of a workspace grow to the largest input it has computed,
+ * and are retained as long as the thread lives. Therefore, inputs with more
+ * than {@link #MAX_POINTS} points are computed in a new instance that is
+ * released afterwards.
+ *
+ * <p>The workspace of a thread computes in that thread only, see
+ * {@link DoubleQuickHull3D#setParallel(boolean)}. Otherwise, the thread may
+ * execute another task of the fork-join pool while it waits for the tasks
+ * of a parallel pass, and that task would reset the workspace of the
+ * thread in the middle of the build. */
+enum Workspace {
+  ;
+  /** maximum number of input points for which the workspace of the thread is used */
+  static final int MAX_POINTS = 1 << 16;
+  private static final ThreadLocal<DoubleQuickHull3D> DOUBLE_QUICK_HULL_3D = ThreadLocal.withInitial(Workspace::serial);
+
+  private static DoubleQuickHull3D serial() {
+    DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D();
+    doubleQuickHull3D.setParallel(false);
+    return doubleQuickHull3D;
+  }
+
+  /** @param numPoints of the input
+   * @return serial workspace of the current thread, or a new instance if numPoints exceeds {@link #MAX_POINTS} */
+  static DoubleQuickHull3D of(int numPoints) {
+    return numPoints <= MAX_POINTS //
+        ? DOUBLE_QUICK_HULL_3D.get()
+        : new DoubleQuickHull3D();
+  }
+}
@@ -0,0 +1,87 @@
+// code by jph
+package ch.alpine.qhull3;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import ch.alpine.tensor.io.Primitives;
+
+class ConvexHull3DBatchTest {
+  private static final Random RANDOM = new Random();
+
+  private static void assertSameFaces(List<int[]> expect, List<int[]> actual) {
+    assertEquals(expect.size(), actual.size());
+    for (int index = 0; index < expect.size(); ++index)
+      assertArrayEquals(expect.get(index), actual.get(index));
+  }
+
+  @RepeatedTest(3)
+  void testFlat() {
+    List<double[]> list = new ArrayList<>();
+    for (int set = 0; set < 200; ++set)
+      list.add(Primitives.toDoubleArray(TestHelper.randomPoints(8 + RANDOM.nextInt(193), 1.0)));
+    // degenerate sets
+    list.add(Primitives.toDoubleArray(TestHelper.randomDegeneratePoints(20, 2)));
+    list.add(new double[9]);
+    int[] offsets = new int[list.size() + 1];
+    for (int set = 0; set < list.size(); ++set)
+      offsets[set + 1] = offsets[set] + list.get(set).length / 3;
+    double[] coords = new double[offsets[list.size()] * 3];
+    for (int set = 0; set < list.size(); ++set)
+      System.arraycopy(list.get(set), 0, coords, offsets[set] * 3, list.get(set).length);
+    ConvexHull3DBatch flat = ConvexHull3DBatch.of(coords, offsets);
+    ConvexHull3DBatch batch = ConvexHull3DBatch.of(list);
+    assertEquals(flat.size(), list.size());
+    for (int set = 0; set < 200; ++set) {
+      DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(list.get(set));
+      doubleQuickHull3D.buildHull();
+      List<int[]> expect = doubleQuickHull3D.getFaces();
+      assertEquals(expect.size(), flat.numFaces(set));
+      assertSameFaces(expect, flat.getFaces(set));
+      assertSameFaces(expect, batch.getFaces(set));
+    }
+    assertEquals(flat.numFaces(200), 0);
+    assertEquals(flat.numFaces(201), 0);
+    assertArrayEquals(flat.getSetOffsets(), batch.getSetOffsets());
+    assertArrayEquals(flat.getFaceOffsets(), batch.getFaceOffsets());
+    assertArrayEquals(flat.getIndices(), batch.getIndices());
+    assertEquals(flat.getFaceOffsets()[flat.getFaceOffsets().length - 1], flat.getIndices().length);
+  }
+
+  @Test
+  void testLarge() {
+    // sets above the threshold of parallel passes, computed in the workspaces of the pool
+    List<double[]> list = new ArrayList<>();
+    for (int set = 0; set < 8; ++set)
+      list.add(Primitives.toDoubleArray(TestHelper.randomSphericalPoints(40000, 1.0)));
+    ConvexHull3DBatch batch = ConvexHull3DBatch.of(list);
+    for (int set = 0; set < list.size(); ++set) {
+      DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(list.get(set));
+      doubleQuickHull3D.buildHull();
+      assertSameFaces(doubleQuickHull3D.getFaces(), batch.getFaces(set));
+    }
+  }
+
+  @Test
+  void testEmpty() {
+    ConvexHull3DBatch convexHull3DBatch = ConvexHull3DBatch.of(new double[0], new int[] { 0 });
+    assertEquals(convexHull3DBatch.size(), 0);
+    assertEquals(convexHull3DBatch.getIndices().length, 0);
+  }
+
+  @Test
+  void testFails() {
+    assertThrows(IllegalArgumentException.class, () -> ConvexHull3DBatch.of(new double[12], new int[] {}));
+    assertThrows(IllegalArgumentException.class, () -> ConvexHull3DBatch.of(new double[12], new int[] { 0, 5 }));
+    assertThrows(IllegalArgumentException.class, () -> ConvexHull3DBatch.of(new double[12], new int[] { 0, 3, 2 }));
+    assertThrows(IllegalArgumentException.class, () -> ConvexHull3DBatch.of(List.of(new double[13])));
+  }
+}
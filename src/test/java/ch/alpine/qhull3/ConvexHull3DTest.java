@@ -0,0 +1,114 @@
+// code by jph
+package ch.alpine.qhull3;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ch.alpine.tensor.Tensor;
+import ch.alpine.tensor.Tensors;
+import ch.alpine.tensor.alg.Partition;
+import ch.alpine.tensor.io.Primitives;
+
+class ConvexHull3DTest {
+  private static void assertSameFaces(List<int[]> expect, List<int[]> actual) {
+    assertEquals(expect.size(), actual.size());
+    for (int index = 0; index < expect.size(); ++index)
+      assertArrayEquals(expect.get(index), actual.get(index));
+  }
+
+  /** @param faces
+   * @return faces that start with the smallest vertex index, in lexicographic order */
+  private static List<int[]> canonical(List<int[]> faces) {
+    return faces.stream().map(face -> {
+      int min = 0;
+      for (int index = 1; index < face.length; ++index)
+        if (face[index] < face[min])
+          min = index;
+      int[] rotated = new int[face.length];
+      for (int index = 0; index < face.length; ++index)
+        rotated[index] = face[(min + index) % face.length];
+      return rotated;
+    }).sorted(Arrays::compare).toList();
+  }
+
+  private static List<int[]> quickHull3D(Tensor coords) {
+    QuickHull3D quickHull3D = new QuickHull3D(coords);
+    quickHull3D.buildHull();
+    return quickHull3D.getFaces();
+  }
+
+  @Test
+  void testMachineDoubles() {
+    Tensor coords = TestHelper.randomSphericalPoints(200, 1.0);
+    assertSameFaces(quickHull3D(coords), ConvexHull3D.of(coords));
+  }
+
+  @Test
+  void testDivideAndConquer() {
+    Tensor coords = TestHelper.randomSphericalPoints(200, 1.0);
+    // the partial hulls visit the points in a different order
+    assertSameFaces(canonical(quickHull3D(coords)), canonical(ConvexHull3D.divideAndConquer(coords)));
+  }
+
+  @Test
+  void testStreaming() {
+    Tensor coords = TestHelper.randomSphericalPoints(200, 1.0);
+    StreamingHull3D streamingHull3D = ConvexHull3D.streaming(coords.stream().map(Primitives::toDoubleArray).iterator());
+    // the faces of the streaming hull refer to its vertices, which are mapped to the input
+    long[] positions = streamingHull3D.getVertexPositions();
+    List<int[]> faces = streamingHull3D.getFaces().stream() //
+        .map(face -> Arrays.stream(face).map(index -> Math.toIntExact(positions[index])).toArray()) //
+        .toList();
+    assertSameFaces(canonical(quickHull3D(coords)), canonical(faces));
+  }
+
+  @Test
+  void testPath(@TempDir Path folder) throws IOException {
+    Tensor coords = TestHelper.randomSphericalPoints(200, 1.0);
+    Path path = folder.resolve("points.bin");
+    ByteBuffer byteBuffer = ByteBuffer.allocate(200 * PointFormat.FLOAT64.bytesPerPoint()).order(ByteOrder.LITTLE_ENDIAN);
+    byteBuffer.asDoubleBuffer().put(Primitives.toDoubleArray(coords));
+    Files.write(path, byteBuffer.array());
+    assertSameFaces(quickHull3D(coords), ConvexHull3D.of(path, PointFormat.FLOAT64));
+    Files.write(path, new byte[20]);
+    assertThrows(IllegalArgumentException.class, () -> ConvexHull3D.of(path, PointFormat.FLOAT64));
+  }
+
+  @Test
+  void testPathParallel(@TempDir Path folder) throws IOException {
+    // the hull of more points than fit into the workspace is built in parallel
+    int n = Workspace.MAX_POINTS + 1;
+    Tensor coords = TestHelper.randomPoints(n, 1.0);
+    Path path = folder.resolve("points.bin");
+    ByteBuffer byteBuffer = ByteBuffer.allocate(n * PointFormat.FLOAT64.bytesPerPoint()).order(ByteOrder.LITTLE_ENDIAN);
+    byteBuffer.asDoubleBuffer().put(Primitives.toDoubleArray(coords));
+    Files.write(path, byteBuffer.array());
+    assertSameFaces(quickHull3D(coords), ConvexHull3D.of(path, PointFormat.FLOAT64));
+  }
+
+  @Test
+  void testExact() {
+    Tensor coords = Partition.of(Tensors.vectorInt( //
+        0, 0, 0, //
+        2, 0, 0, //
+        0, 2, 0, //
+        0, 0, 2, //
+        1, 1, 1, //
+        2, 2, 2), 3);
+    List<int[]> faces = ConvexHull3D.of(coords);
+    assertEquals(6, faces.size());
+    assertSameFaces(quickHull3D(coords), faces);
+  }
+}
@@ -0,0 +1,67 @@
+// code by jph
+package ch.alpine.qhull3;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import ch.alpine.tensor.io.Primitives;
+
+class DivideAndConquerHull3DTest {
+  private static int[] vertexIndices(List<int[]> faces) {
+    return faces.stream().flatMapToInt(Arrays::stream).distinct().sorted().toArray();
+  }
+
+  private static void assertSameHull(double[] coords, int chunks) {
+    DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(coords);
+    doubleQuickHull3D.buildHull();
+    List<int[]> faces = DivideAndConquerHull3D.of(coords, chunks);
+    assertEquals(doubleQuickHull3D.getFaces().size(), faces.size());
+    assertArrayEquals(doubleQuickHull3D.getVertexIndices(), vertexIndices(faces));
+  }
+
+  @RepeatedTest(3)
+  void testRandom() {
+    double[] coords = Primitives.toDoubleArray(TestHelper.randomPoints(20_000, 1.0));
+    for (int chunks : new int[] { 1, 2, 7, 16 })
+      assertSameHull(coords, chunks);
+  }
+
+  @RepeatedTest(3)
+  void testSpherical() {
+    assertSameHull(Primitives.toDoubleArray(TestHelper.randomSphericalPoints(5_000, 1.0)), 5);
+  }
+
+  @Test
+  void testDegenerateChunk() {
+    // the points of the first chunk are coplanar
+    double[] planar = Primitives.toDoubleArray(TestHelper.randomDegeneratePoints(1_000, 2));
+    double[] random = Primitives.toDoubleArray(TestHelper.randomPoints(1_000, 1.0));
+    double[] coords = new double[planar.length + random.length];
+    System.arraycopy(planar, 0, coords, 0, planar.length);
+    System.arraycopy(random, 0, coords, planar.length, random.length);
+    assertSameHull(coords, 2);
+  }
+
+  @Test
+  void testDefault() {
+    double[] coords = Primitives.toDoubleArray(TestHelper.randomPoints(3 * DivideAndConquerHull3D.MIN_CHUNK_SIZE, 1.0));
+    DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(coords);
+    doubleQuickHull3D.buildHull();
+    assertArrayEquals(doubleQuickHull3D.getVertexIndices(), vertexIndices(DivideAndConquerHull3D.of(coords)));
+  }
+
+  @Test
+  void testFails() {
+    assertThrows(IllegalArgumentException.class, () -> DivideAndConquerHull3D.of(new double[9]));
+    assertThrows(IllegalArgumentException.class, () -> DivideAndConquerHull3D.of(new double[13]));
+    double[] coords = Primitives.toDoubleArray(TestHelper.randomDegeneratePoints(100, 2));
+    assertThrows(IllegalArgumentException.class, () -> DivideAndConquerHull3D.of(coords, 4));
+  }
+}
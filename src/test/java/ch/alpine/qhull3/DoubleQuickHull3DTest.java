@@ -0,0 +1,503 @@
+// code by jph
+package ch.alpine.qhull3;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import ch.alpine.tensor.Tensor;
+import ch.alpine.tensor.Tensors;
+import ch.alpine.tensor.alg.Partition;
+import ch.alpine.tensor.io.Primitives;
+
+class DoubleQuickHull3DTest {
+  private static void assertSameFaces(List<int[]> expect, List<int[]> actual) {
+    assertEquals(expect.size(), actual.size());
+    for (int index = 0; index < expect.size(); ++index)
+      assertArrayEquals(expect.get(index), actual.get(index));
+  }
+
+  /** @param coords
+   * @return hull of given points, with the faces of QuickHull3D */
+  private static DoubleQuickHull3D assertQuickHull3D(Tensor coords) {
+    QuickHull3D quickHull3D = new QuickHull3D(coords);
+    quickHull3D.setValidation(Validation.FULL);
+    quickHull3D.buildHull();
+    DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(Primitives.toDoubleArray(coords));
+    doubleQuickHull3D.setValidation(Validation.FULL);
+    doubleQuickHull3D.buildHull();
+    assertTrue(doubleQuickHull3D.check(null));
+    assertSameFaces(quickHull3D.getFaces(), doubleQuickHull3D.getFaces());
+    return doubleQuickHull3D;
+  }
+
+  private static DoubleQuickHull3D build(double[] coords) {
+    DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(coords);
+    doubleQuickHull3D.setValidation(Validation.FULL);
+    doubleQuickHull3D.buildHull();
+    return doubleQuickHull3D;
+  }
+
+  @RepeatedTest(10)
+  void testRandom() {
+    for (int n = 20; n < 200; n += 10)
+      assertQuickHull3D(TestHelper.randomPoints(n, 1.0));
+  }
+
+  @RepeatedTest(10)
+  void testSpherical() {
+    for (int n = 20; n < 200; n += 10)
+      assertQuickHull3D(TestHelper.randomSphericalPoints(n, 1.0));
+  }
+
+  @RepeatedTest(10)
+  void testCubed() {
+    for (int n = 20; n < 200; n += 10)
+      assertQuickHull3D(TestHelper.randomCubedPoints(n, 1.0, 0.5));
+  }
+
+  @RepeatedTest(10)
+  void testGrid() {
+    for (int n = 2; n <= 10; n++)
+      assertQuickHull3D(TestHelper.randomGridPoints(n, 4.0));
+  }
+
+  @RepeatedTest(10)
+  void testDegeneracy() {
+    Tensor coords = TestHelper.randomSphericalPoints(100, 1.0);
+    QuickHull3D quickHull3D = new QuickHull3D(coords);
+    quickHull3D.buildHull();
+    assertQuickHull3D(TestHelper.addDegeneracy(QuickHull3DHelper.VERTEX_DEGENERACY, coords, quickHull3D));
+    assertQuickHull3D(TestHelper.addDegeneracy(QuickHull3DHelper.EDGE_DEGENERACY, coords, quickHull3D));
+  }
+
+  @Test
+  void testVertices() {
+    DoubleQuickHull3D doubleQuickHull3D = build(new double[] { //
+        0, 0, 0, 1, 0, 0, 0, 1, 0, 1, 1, 0, //
+        .5, .5, .5, .2, .3, .4, //
+        0, 0, 1, 1, 0, 1, 0, 1, 1, 1, 1, 1 });
+    assertEquals(doubleQuickHull3D.getFaces().size(), 6);
+    assertArrayEquals(doubleQuickHull3D.getVertexIndices(), new int[] { 0, 1, 2, 3, 6, 7, 8, 9 });
+    double[][] vertices = doubleQuickHull3D.getVertices();
+    assertEquals(vertices.length, 8);
+    assertArrayEquals(vertices[7], new double[] { 1, 1, 1 });
+  }
+
+  @RepeatedTest(5)
+  void testReset() {
+    DoubleQuickHull3D workspace = new DoubleQuickHull3D();
+    workspace.setValidation(Validation.FULL);
+    assertThrows(IllegalStateException.class, workspace::buildHull);
+    for (int n : new int[] { 150, 20, 80, 300, 4, 40 }) {
+      double[] coords = Primitives.toDoubleArray(TestHelper.randomSphericalPoints(n, 1.0));
+      workspace.reset(coords);
+      workspace.buildHull();
+      assertTrue(workspace.check(null));
+      assertSameFaces(build(coords).getFaces(), workspace.getFaces());
+    }
+    workspace.reset(Primitives.toDoubleArray(TestHelper.randomDegeneratePoints(10, 1)));
+    assertThrows(IllegalArgumentException.class, workspace::buildHull);
+    assertThrows(IllegalArgumentException.class, () -> workspace.reset(new double[9]));
+    workspace.reset(Primitives.toDoubleArray(TestHelper.randomPoints(30, 1.0)));
+    workspace.buildHull();
+    assertTrue(workspace.check(null));
+  }
+
+  @Test
+  void testResetSegment() {
+    double[] coords = Primitives.toDoubleArray(TestHelper.randomPoints(1000, 1.0));
+    ByteBuffer byteBuffer = ByteBuffer.allocate(coords.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    byteBuffer.asDoubleBuffer().put(coords);
+    DoubleQuickHull3D segment = new DoubleQuickHull3D();
+    segment.reset(MemorySegment.ofBuffer(byteBuffer).asReadOnly(), PointFormat.FLOAT64);
+    segment.buildHull();
+    assertSameFaces(build(coords).getFaces(), segment.getFaces());
+    // the points are appended to a copy of the read-only segment
+    segment.addPoints(Primitives.toDoubleArray(TestHelper.randomPoints(100, 1.2)));
+    assertTrue(segment.check(null));
+    // single precision
+    byteBuffer = ByteBuffer.allocate(coords.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    for (int index = 0; index < coords.length; ++index) {
+      byteBuffer.putFloat((float) coords[index]);
+      coords[index] = (float) coords[index];
+    }
+    segment.reset(MemorySegment.ofBuffer(byteBuffer.flip()), PointFormat.FLOAT32);
+    segment.buildHull();
+    assertSameFaces(build(coords).getFaces(), segment.getFaces());
+    assertThrows(IllegalArgumentException.class, () -> segment.reset(MemorySegment.ofArray(new byte[100]), PointFormat.FLOAT64));
+    assertThrows(IllegalArgumentException.class, () -> segment.reset(MemorySegment.ofArray(new byte[36]), PointFormat.FLOAT32));
+  }
+
+  @Test
+  void testOffHeap() {
+    double[] coords = Primitives.toDoubleArray(TestHelper.randomSphericalPoints(2000, 1.0));
+    DoubleQuickHull3D offHeap;
+    try (Arena arena = Arena.ofShared()) {
+      offHeap = new DoubleQuickHull3D(arena);
+      offHeap.setValidation(Validation.FULL);
+      offHeap.reset(Arrays.copyOf(coords, 300));
+      offHeap.buildHull();
+      offHeap.reset(coords);
+      offHeap.buildHull();
+      assertTrue(offHeap.check(null));
+      assertSameFaces(build(coords).getFaces(), offHeap.getFaces());
+      offHeap.addPoints(Primitives.toDoubleArray(TestHelper.randomSphericalPoints(1000, 1.1)));
+      assertTrue(offHeap.check(null));
+    }
+    assertThrows(IllegalStateException.class, () -> offHeap.reset(coords));
+  }
+
+  @Test
+  void testParallel() {
+    // many ties among the extreme points and the farthest points of the grid
+    for (Tensor _coords : new Tensor[] { //
+        TestHelper.randomPoints(2 * DoubleQuickHull3D.PARALLEL_THRESHOLD, 1.0), //
+        TestHelper.randomGridPoints(33, 4.0) }) {
+      double[] coords = Primitives.toDoubleArray(_coords);
+      for (boolean prefilter : new boolean[] { false, true }) {
+        DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(coords);
+        assertTrue(doubleQuickHull3D.getParallel());
+        doubleQuickHull3D.setPrefilter(prefilter);
+        doubleQuickHull3D.buildHull();
+        DoubleQuickHull3D serial = new DoubleQuickHull3D(coords);
+        serial.setParallel(false);
+        assertFalse(serial.getParallel());
+        serial.setPrefilter(prefilter);
+        serial.buildHull();
+        assertEquals(serial.getNumCulled(), doubleQuickHull3D.getNumCulled());
+        assertSameFaces(serial.getFaces(), doubleQuickHull3D.getFaces());
+      }
+    }
+  }
+
+  /** @param _coords
+   * @param exact whether the vertices of the hull are unique, which is not the case
+   * for input with points that are coplanar with the faces up to the tolerance */
+  private static void assertPrefilter(Tensor _coords, boolean exact) {
+    double[] coords = Primitives.toDoubleArray(_coords);
+    DoubleQuickHull3D doubleQuickHull3D = build(coords);
+    assertEquals(doubleQuickHull3D.getNumCulled(), 0);
+    DoubleQuickHull3D prefilter = new DoubleQuickHull3D(coords);
+    prefilter.setValidation(Validation.FULL);
+    assertFalse(prefilter.getPrefilter());
+    prefilter.setPrefilter(true);
+    prefilter.buildHull();
+    assertTrue(prefilter.check(null));
+    assertTrue(0 < prefilter.getNumCulled());
+    if (exact)
+      assertArrayEquals(doubleQuickHull3D.getVertexIndices(), prefilter.getVertexIndices());
+  }
+
+  @RepeatedTest(5)
+  void testPrefilter() {
+    assertPrefilter(TestHelper.randomPoints(1000, 1.0), true);
+    assertPrefilter(TestHelper.randomSphericalPoints(1000, 1.0), true);
+    assertPrefilter(TestHelper.randomCubedPoints(1000, 1.0, 0.5), false);
+    assertPrefilter(TestHelper.randomGridPoints(8, 4.0), true);
+  }
+
+  @RepeatedTest(5)
+  void testEyeBatch() {
+    for (Tensor _coords : new Tensor[] { //
+        TestHelper.randomPoints(3000, 1.0), //
+        TestHelper.randomSphericalPoints(3000, 1.0) }) {
+      double[] coords = Primitives.toDoubleArray(_coords);
+      int[] expect = build(coords).getVertexIndices();
+      for (int size : new int[] { 2, 16, 64 }) {
+        DoubleQuickHull3D speculative = new DoubleQuickHull3D(coords);
+        speculative.setValidation(Validation.FULL);
+        speculative.setEyeBatchSize(size);
+        assertEquals(speculative.getEyeBatchSize(), size);
+        speculative.buildHull();
+        assertTrue(speculative.check(null));
+        assertArrayEquals(expect, speculative.getVertexIndices());
+        DoubleQuickHull3D serial = new DoubleQuickHull3D(coords);
+        serial.setEyeBatchSize(size);
+        serial.setParallel(false);
+        serial.buildHull();
+        assertSameFaces(serial.getFaces(), speculative.getFaces());
+      }
+    }
+    // degenerate input
+    for (Tensor _coords : new Tensor[] { //
+        TestHelper.randomGridPoints(8, 4.0), //
+        TestHelper.randomCubedPoints(1000, 1.0, 0.5) }) {
+      DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(Primitives.toDoubleArray(_coords));
+      doubleQuickHull3D.setValidation(Validation.FULL);
+      doubleQuickHull3D.setEyeBatchSize(8);
+      doubleQuickHull3D.buildHull();
+      assertTrue(doubleQuickHull3D.check(null));
+    }
+    DoubleQuickHull3D grid = new DoubleQuickHull3D(Primitives.toDoubleArray(TestHelper.randomGridPoints(8, 4.0)));
+    grid.setEyeBatchSize(8);
+    grid.buildHull();
+    assertEquals(grid.getFaces().size(), 6);
+    assertThrows(IllegalArgumentException.class, () -> new DoubleQuickHull3D().setEyeBatchSize(0));
+  }
+
+  @Test
+  void testAddPoints() {
+    for (Tensor _coords : new Tensor[] { //
+        TestHelper.randomPoints(4000, 1.0), //
+        TestHelper.randomSphericalPoints(4000, 1.0) }) {
+      double[] coords = Primitives.toDoubleArray(_coords);
+      int[] expect = build(coords).getVertexIndices();
+      for (int size : new int[] { 1, 4 }) {
+        DoubleQuickHull3D incremental = new DoubleQuickHull3D(Arrays.copyOf(coords, coords.length / 2));
+        incremental.setValidation(Validation.FULL);
+        incremental.setEyeBatchSize(size);
+        incremental.buildHull();
+        incremental.addPoints(Arrays.copyOfRange(coords, coords.length / 2, coords.length));
+        assertTrue(incremental.check(null));
+        assertArrayEquals(expect, incremental.getVertexIndices());
+      }
+      // points in small increments
+      DoubleQuickHull3D incremental = build(Arrays.copyOf(coords, 12));
+      for (int index = 12; index < coords.length; index += 300) {
+        incremental.addPoints(Arrays.copyOfRange(coords, index, Math.min(index + 300, coords.length)));
+        assertTrue(incremental.check(null));
+      }
+      assertArrayEquals(expect, incremental.getVertexIndices());
+      // points inside the hull
+      List<int[]> faces = incremental.getFaces();
+      incremental.addPoints(Primitives.toDoubleArray(TestHelper.randomSphericalPoints(500, 0.5)));
+      assertSameFaces(faces, incremental.getFaces());
+      assertTrue(incremental.check(null));
+    }
+  }
+
+  @Test
+  void testAddPointsLargeCone() {
+    double[] coords = Primitives.toDoubleArray(TestHelper.randomSphericalPoints(4000, 1.0));
+    // the far point is visible from a large fraction of the faces, so that the
+    // unclaimed points are located by a walk over many new faces
+    double[] shell = Primitives.toDoubleArray(TestHelper.randomSphericalPoints(2000, 1.01));
+    double[] extra = new double[3 + shell.length];
+    extra[2] = 3;
+    System.arraycopy(shell, 0, extra, 3, shell.length);
+    DoubleQuickHull3D incremental = build(coords);
+    incremental.addPoints(extra);
+    assertTrue(incremental.check(null));
+    double[] all = Arrays.copyOf(coords, coords.length + extra.length);
+    System.arraycopy(extra, 0, all, coords.length, extra.length);
+    assertArrayEquals(build(all).getVertexIndices(), incremental.getVertexIndices());
+  }
+
+  @RepeatedTest(3)
+  void testLargeCone() {
+    // the points on the perturbed caps of the cylinder produce cones with
+    // hundreds of new faces, so that the orphans are located by the walk
+    double[] coords = QuickHull3DHelper.cylinderCaps(250, new Random());
+    assertQuickHull3D(Partition.of(Tensors.vectorDouble(coords), 3));
+  }
+
+  @RepeatedTest(3)
+  void testEyeStrategy() {
+    for (Tensor _coords : new Tensor[] { //
+        TestHelper.randomPoints(2000, 1.0), //
+        TestHelper.randomSphericalPoints(2000, 1.0) }) {
+      double[] coords = Primitives.toDoubleArray(_coords);
+      assertEquals(new DoubleQuickHull3D(coords).getEyeStrategy(), EyeStrategy.OUTSIDE_SET_ORDER);
+      int[] expect = build(coords).getVertexIndices();
+      for (int size : new int[] { 1, 4 }) {
+        DoubleQuickHull3D farthest = new DoubleQuickHull3D(Arrays.copyOf(coords, coords.length / 2));
+        farthest.setValidation(Validation.FULL);
+        farthest.setEyeStrategy(EyeStrategy.FARTHEST);
+        farthest.setEyeBatchSize(size);
+        farthest.buildHull();
+        assertTrue(farthest.check(null));
+        assertTrue(0 < farthest.getNumIterations());
+        farthest.addPoints(Arrays.copyOfRange(coords, coords.length / 2, coords.length));
+        assertTrue(farthest.check(null));
+        assertArrayEquals(expect, farthest.getVertexIndices());
+      }
+    }
+    assertThrows(NullPointerException.class, () -> new DoubleQuickHull3D().setEyeStrategy(null));
+  }
+
+  @RepeatedTest(3)
+  void testWorklistMerge() {
+    for (Tensor _coords : new Tensor[] { //
+        TestHelper.randomCubedPoints(2000, 1.0, 0.5), //
+        TestHelper.randomGridPoints(8, 4.0), //
+        Partition.of(Tensors.vectorDouble(QuickHull3DHelper.cylinderCaps(500, new Random())), 3) }) {
+      double[] coords = Primitives.toDoubleArray(_coords);
+      assertFalse(new DoubleQuickHull3D(coords).getWorklistMerge());
+      DoubleQuickHull3D worklist = new DoubleQuickHull3D(coords);
+      worklist.setValidation(Validation.FULL);
+      worklist.setWorklistMerge(true);
+      worklist.buildHull();
+      assertTrue(worklist.check(null));
+      assertTrue(0 < worklist.getNumMerges());
+    }
+  }
+
+  @RepeatedTest(3)
+  void testValidation() {
+    for (Tensor _coords : new Tensor[] { //
+        TestHelper.randomCubedPoints(1000, 1.0, 0.5), //
+        TestHelper.randomGridPoints(8, 4.0) }) {
+      double[] coords = Primitives.toDoubleArray(_coords);
+      assertEquals(new DoubleQuickHull3D(coords).getValidation(), Validation.CHEAP);
+      List<int[]> expect = build(coords).getFaces();
+      for (Validation validation : Validation.values()) {
+        DoubleQuickHull3D validated = new DoubleQuickHull3D(coords);
+        validated.setValidation(validation);
+        validated.buildHull();
+        assertTrue(validated.check(null));
+        assertSameFaces(expect, validated.getFaces());
+      }
+    }
+    assertThrows(NullPointerException.class, () -> new DoubleQuickHull3D().setValidation(null));
+  }
+
+  /** @param coords
+   * @return verification of the hull of given points that is compared to the
+   * test of every point against every face */
+  private static HullVerification assertVerify(double[] coords) {
+    DoubleQuickHull3D doubleQuickHull3D = build(coords);
+    HullVerification hullVerification = doubleQuickHull3D.verify();
+    assertTrue(hullVerification.isValid());
+    double[] planes = doubleQuickHull3D.getPlanes();
+    double max = Double.NEGATIVE_INFINITY;
+    for (int point = 0; point < coords.length / 3; ++point)
+      for (int face = 0; face < planes.length / 4; ++face)
+        max = Math.max(max, distance(planes, face, coords, point));
+    assertEquals(max, hullVerification.maxPointDistance());
+    assertEquals(max, distance(planes, hullVerification.face(), coords, hullVerification.point()));
+    assertTrue(hullVerification.maxEdgeDistance() < 0);
+    return hullVerification;
+  }
+
+  private static double distance(double[] planes, int face, double[] coords, int point) {
+    int i = face * 4;
+    int j = point * 3;
+    return planes[i] * coords[j] + planes[i + 1] * coords[j + 1] + planes[i + 2] * coords[j + 2] - planes[i + 3];
+  }
+
+  @RepeatedTest(3)
+  void testVerify() {
+    assertVerify(Primitives.toDoubleArray(TestHelper.randomPoints(1000, 1.0)));
+    assertVerify(Primitives.toDoubleArray(TestHelper.randomCubedPoints(1000, 1.0, 0.5)));
+    assertVerify(Primitives.toDoubleArray(TestHelper.randomGridPoints(8, 4.0)));
+    double[] coords = Primitives.toDoubleArray(TestHelper.randomSphericalPoints(2 * DoubleQuickHull3D.PARALLEL_THRESHOLD, 1.0));
+    HullVerification hullVerification = assertVerify(coords);
+    DoubleQuickHull3D serial = new DoubleQuickHull3D(coords);
+    serial.setParallel(false);
+    serial.buildHull();
+    assertEquals(hullVerification, serial.verify());
+    hullVerification = new HullVerification(1e-15, -0.1, 0, 1, 2e-14, 3, 4);
+    assertTrue(hullVerification.isConvex());
+    assertFalse(hullVerification.containsPoints());
+    assertFalse(hullVerification.isValid());
+    assertThrows(IllegalStateException.class, () -> new DoubleQuickHull3D(new double[12]).verify());
+  }
+
+  private static DoubleQuickHull3D assertRobust(double[] coords, int size) {
+    DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(coords);
+    doubleQuickHull3D.setValidation(Validation.FULL);
+    doubleQuickHull3D.setRobust(true);
+    assertTrue(doubleQuickHull3D.getRobust());
+    doubleQuickHull3D.setEyeBatchSize(size);
+    doubleQuickHull3D.buildHull();
+    assertTrue(doubleQuickHull3D.check(null));
+    // without merges, every face is a triangle
+    for (int[] face : doubleQuickHull3D.getFaces())
+      assertEquals(3, face.length);
+    assertEquals(doubleQuickHull3D.getFaces().size(), doubleQuickHull3D.getNumTriangles());
+    return doubleQuickHull3D;
+  }
+
+  @RepeatedTest(3)
+  void testRobust() {
+    Tensor spherical = TestHelper.randomSphericalPoints(300, 1.0);
+    QuickHull3D quickHull3D = new QuickHull3D(spherical);
+    quickHull3D.buildHull();
+    for (Tensor _coords : new Tensor[] { //
+        TestHelper.randomGridPoints(8, 4.0), //
+        TestHelper.randomCubedPoints(1000, 1.0, 0.5), //
+        TestHelper.addDegeneracy(QuickHull3DHelper.VERTEX_DEGENERACY, spherical, quickHull3D), //
+        TestHelper.addDegeneracy(QuickHull3DHelper.EDGE_DEGENERACY, spherical, quickHull3D) })
+      for (int size : new int[] { 1, 8 })
+        assertRobust(Primitives.toDoubleArray(_coords), size);
+    double[] coords = Primitives.toDoubleArray(TestHelper.randomPoints(1000, 1.0));
+    DoubleQuickHull3D doubleQuickHull3D = build(coords);
+    assertFalse(doubleQuickHull3D.getRobust());
+    // points in general position do not require merges
+    assertArrayEquals(doubleQuickHull3D.getVertexIndices(), assertRobust(coords, 1).getVertexIndices());
+  }
+
+  @RepeatedTest(3)
+  void testTriangles() {
+    for (Tensor coords : new Tensor[] { //
+        TestHelper.randomCubedPoints(1000, 1.0, 0.5), //
+        TestHelper.randomSphericalPoints(1000, 1.0) }) {
+      DoubleQuickHull3D doubleQuickHull3D = assertQuickHull3D(coords);
+      QuickHull3D quickHull3D = new QuickHull3D(coords);
+      quickHull3D.buildHull();
+      int[] triangles = doubleQuickHull3D.getTriangles();
+      assertEquals(3 * doubleQuickHull3D.getNumTriangles(), triangles.length);
+      // Euler characteristic of a triangulated convex polyhedron
+      assertEquals(2 * doubleQuickHull3D.getVertexIndices().length - 4, doubleQuickHull3D.getNumTriangles());
+      int index = 0;
+      for (int[] face : doubleQuickHull3D.getFaces())
+        for (int k = 1; k + 1 < face.length; ++k) {
+          assertEquals(face[0], triangles[index++]);
+          assertEquals(face[k], triangles[index++]);
+          assertEquals(face[k + 1], triangles[index++]);
+        }
+      assertArrayEquals(triangles, quickHull3D.getTriangles());
+    }
+  }
+
+  @Test
+  void testDeepHorizon() throws InterruptedException {
+    DoubleQuickHull3D doubleQuickHull3D = build(Primitives.toDoubleArray(TestHelper.randomSphericalPoints(20000, 1.0)));
+    int[] expect = doubleQuickHull3D.getTriangles();
+    // a point far above the hull sees half of the faces
+    Throwable[] throwable = new Throwable[1];
+    Thread thread = new Thread(null, () -> {
+      try {
+        doubleQuickHull3D.addPoints(new double[] { 0, 0, 1e6 });
+        assertTrue(doubleQuickHull3D.check(null));
+      } catch (Throwable _throwable) {
+        throwable[0] = _throwable;
+      }
+    }, "small stack", 1 << 16);
+    thread.start();
+    thread.join();
+    assertNull(throwable[0]);
+    assertTrue(doubleQuickHull3D.getTriangles().length < expect.length);
+  }
+
+  @Test
+  void testFails() {
+    assertThrows(IllegalArgumentException.class, () -> new DoubleQuickHull3D(new double[9]));
+    assertThrows(IllegalArgumentException.class, () -> new DoubleQuickHull3D(new double[13]));
+    for (int dimen = 0; dimen < 3; ++dimen) {
+      DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(Primitives.toDoubleArray(TestHelper.randomDegeneratePoints(10, dimen)));
+      assertThrows(IllegalArgumentException.class, doubleQuickHull3D::buildHull);
+    }
+    DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(Primitives.toDoubleArray(TestHelper.randomPoints(10, 1.0)));
+    assertThrows(IllegalStateException.class, () -> doubleQuickHull3D.addPoints(new double[3]));
+    doubleQuickHull3D.buildHull();
+    assertThrows(IllegalArgumentException.class, () -> doubleQuickHull3D.addPoints(new double[4]));
+    doubleQuickHull3D.reset(Primitives.toDoubleArray(TestHelper.randomPoints(10, 1.0)));
+    assertThrows(IllegalStateException.class, () -> doubleQuickHull3D.addPoints(new double[3]));
+  }
+}
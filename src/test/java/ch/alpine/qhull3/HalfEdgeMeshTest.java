@@ -0,0 +1,144 @@
+// code by jph
+package ch.alpine.qhull3;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class HalfEdgeMeshTest {
+  private static HalfEdgeMesh tetrahedron() {
+    DoublePoints points = new DoublePoints(new double[] { 0, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0, 1 });
+    HalfEdgeMesh mesh = new HalfEdgeMesh(points);
+    int f0 = mesh.createTriangle(0, 2, 1);
+    int f1 = mesh.createTriangle(3, 0, 1);
+    int f2 = mesh.createTriangle(3, 1, 2);
+    int f3 = mesh.createTriangle(3, 2, 0);
+    int[] tris = { f0, f1, f2, f3 };
+    for (int i = 0; i < 3; i++) {
+      int k = (i + 1) % 3;
+      mesh.setOpposite(mesh.getEdge(tris[i + 1], 0), mesh.getEdge(tris[k + 1], 1));
+      mesh.setOpposite(mesh.getEdge(tris[i + 1], 2), mesh.getEdge(tris[0], (3 - i) % 3));
+    }
+    for (int face : tris)
+      mesh.checkConsistency(face);
+    return mesh;
+  }
+
+  private static HalfEdgeMesh octahedron() {
+    DoublePoints points = new DoublePoints(new double[] { 1, 0, 0, -1, 0, 0, 0, 1, 0, 0, -1, 0, 0, 0, 1, 0, 0, -1 });
+    HalfEdgeMesh mesh = new HalfEdgeMesh(points);
+    int[][] triangles = { { 0, 2, 4 }, { 2, 1, 4 }, { 1, 3, 4 }, { 3, 0, 4 }, { 2, 0, 5 }, { 1, 2, 5 }, { 3, 1, 5 }, { 0, 3, 5 } };
+    int[] faces = new int[triangles.length];
+    for (int index = 0; index < triangles.length; ++index)
+      faces[index] = mesh.createTriangle(triangles[index][0], triangles[index][1], triangles[index][2]);
+    for (int face : faces)
+      for (int i = 0; i < 3; ++i) {
+        int he = mesh.getEdge(face, i);
+        for (int other : faces)
+          for (int j = 0; j < 3; ++j) {
+            int opp = mesh.getEdge(other, j);
+            if (mesh.head(opp) == mesh.tail(he) && mesh.tail(opp) == mesh.head(he))
+              mesh.setOpposite(he, opp);
+          }
+      }
+    for (int face : faces)
+      mesh.checkConsistency(face);
+    return mesh;
+  }
+
+  /** @param mesh
+   * @param face
+   * @param tail
+   * @param head
+   * @return half-edge of face from tail to head */
+  private static int edge(HalfEdgeMesh mesh, int face, int tail, int head) {
+    for (int i = 0; i < mesh.numVertices(face); ++i) {
+      int he = mesh.getEdge(face, i);
+      if (mesh.tail(he) == tail && mesh.head(he) == head)
+        return he;
+    }
+    throw new IllegalArgumentException();
+  }
+
+  private static void assertPlaneFromRing(HalfEdgeMesh mesh, int face) {
+    double[] plane = new double[5];
+    mesh.getPlane(face, plane, 0);
+    plane[4] = mesh.area(face);
+    int numVertices = mesh.numVertices(face);
+    mesh.computeNormalAndCentroid(face);
+    double[] expect = new double[5];
+    mesh.getPlane(face, expect, 0);
+    expect[4] = mesh.area(face);
+    assertArrayEquals(expect, plane, 1e-12);
+    assertEquals(mesh.getIndices(face).length, numVertices);
+    assertEquals(numVertices, mesh.numVertices(face));
+  }
+
+  @Test
+  void testMergeRunningSums() {
+    HalfEdgeMesh mesh = octahedron();
+    int face = mesh.firstFace();
+    IntList discarded = new IntList();
+    mesh.mergeAdjacentFace(edge(mesh, face, 2, 4), discarded, new IntList(), Validation.FULL);
+    assertArrayEquals(new int[] { 0, 2, 1, 4 }, mesh.getIndices(face));
+    assertPlaneFromRing(mesh, face);
+    // the apex is redundant, the last triangle at the apex is discarded
+    mesh.mergeAdjacentFace(edge(mesh, face, 1, 4), discarded, new IntList(), Validation.FULL);
+    assertArrayEquals(new int[] { 0, 2, 1, 3 }, mesh.getIndices(face));
+    assertEquals(3, discarded.size());
+    assertEquals(0.0, mesh.distanceToPlane(face, 0, 0, 0), 1e-12);
+    assertEquals(1.0, mesh.distanceToPlane(face, 0, 0, 1), 1e-12);
+    assertPlaneFromRing(mesh, face);
+  }
+
+  @Test
+  void testMergeRedundantVertex() {
+    HalfEdgeMesh mesh = octahedron();
+    int face = mesh.firstFace();
+    IntList discarded = new IntList();
+    mesh.mergeAdjacentFace(edge(mesh, face, 2, 4), discarded, new IntList(), Validation.FULL);
+    mesh.mergeAdjacentFace(edge(mesh, face, 1, 4), discarded, new IntList(), Validation.FULL);
+    // the adjacent triangles on both sides of the merged triangle are discarded
+    mesh.mergeAdjacentFace(edge(mesh, face, 0, 2), discarded, new IntList(), Validation.FULL);
+    assertEquals(6, discarded.size());
+    assertArrayEquals(new int[] { 5, 1, 3 }, mesh.getIndices(face));
+    assertPlaneFromRing(mesh, face);
+  }
+
+  @Test
+  void testTetrahedron() {
+    HalfEdgeMesh mesh = tetrahedron();
+    int face = mesh.firstFace();
+    assertArrayEquals(new int[] { 0, 2, 1 }, mesh.getIndices(face));
+    assertEquals(-1.0, mesh.distanceToPlane(face, 0.0, 0.0, 1.0), 1e-12);
+    int count = 0;
+    for (; 0 <= face; face = mesh.nextFace(face)) {
+      assertEquals(3, mesh.numVertices(face));
+      assertEquals(HalfEdgeMesh.VISIBLE, mesh.mark(face));
+      ++count;
+    }
+    assertEquals(4, count);
+  }
+
+  @Test
+  void testRecycle() {
+    HalfEdgeMesh mesh = tetrahedron();
+    int face = mesh.firstFace();
+    mesh.deleteFace(face);
+    assertEquals(HalfEdgeMesh.DELETED, mesh.mark(face));
+    assertEquals(face, mesh.firstFace());
+    mesh.release();
+    assertEquals(1, mesh.firstFace());
+    int he0 = mesh.he0(face);
+    int created = mesh.createTriangle(0, 2, 1);
+    assertEquals(face, created);
+    // half-edges of the released face are reused in reverse order
+    assertEquals(he0 + 2, mesh.he0(created));
+    // the recycled face is last in the order of creation
+    int last = -1;
+    for (int index = mesh.firstFace(); 0 <= index; index = mesh.nextFace(index))
+      last = index;
+    assertEquals(created, last);
+  }
+}
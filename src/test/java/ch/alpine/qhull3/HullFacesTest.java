@@ -0,0 +1,72 @@
+// code by jph
+package ch.alpine.qhull3;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.IntBuffer;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import ch.alpine.tensor.Tensor;
+import ch.alpine.tensor.io.Primitives;
+
+class HullFacesTest {
+  private static void assertSameFaces(List<int[]> expect, HullFaces hullFaces) {
+    assertEquals(expect.size(), hullFaces.numFaces());
+    List<int[]> actual = hullFaces.getFaces();
+    for (int index = 0; index < expect.size(); ++index) {
+      assertEquals(expect.get(index).length, hullFaces.numVertices(index));
+      assertArrayEquals(expect.get(index), actual.get(index));
+    }
+  }
+
+  @Test
+  void testEngines() {
+    Tensor coords = TestHelper.randomCubedPoints(1000, 1.0, 0.5);
+    QuickHull3D quickHull3D = new QuickHull3D(coords);
+    quickHull3D.buildHull();
+    assertSameFaces(quickHull3D.getFaces(), quickHull3D.getHullFaces());
+    DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(Primitives.toDoubleArray(coords));
+    doubleQuickHull3D.buildHull();
+    List<int[]> faces = doubleQuickHull3D.getFaces();
+    HullFaces hullFaces = doubleQuickHull3D.getHullFaces();
+    assertSameFaces(faces, hullFaces);
+    assertSameFaces(faces, HullFaces.of(faces));
+    assertEquals(hullFaces.getOffsets()[hullFaces.numFaces()], hullFaces.getIndices().length);
+  }
+
+  @Test
+  void testSerialization() {
+    DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(Primitives.toDoubleArray(TestHelper.randomSphericalPoints(500, 1.0)));
+    doubleQuickHull3D.buildHull();
+    HullFaces hullFaces = doubleQuickHull3D.getHullFaces();
+    IntBuffer intBuffer = IntBuffer.allocate((int) (hullFaces.byteSize() / Integer.BYTES) + 1);
+    intBuffer.put(-1);
+    hullFaces.write(intBuffer);
+    assertEquals(intBuffer.capacity(), intBuffer.position());
+    assertSameFaces(doubleQuickHull3D.getFaces(), HullFaces.read(intBuffer.position(1)));
+    try (Arena arena = Arena.ofConfined()) {
+      MemorySegment memorySegment = arena.allocate(hullFaces.byteSize() + 3);
+      assertEquals(memorySegment.byteSize(), hullFaces.write(memorySegment, 3));
+      assertSameFaces(doubleQuickHull3D.getFaces(), HullFaces.read(memorySegment, 3));
+    }
+  }
+
+  @Test
+  void testReadFails() {
+    assertThrows(IllegalArgumentException.class, () -> HullFaces.read(IntBuffer.wrap(new int[] { -1, 0 })));
+    assertThrows(IllegalArgumentException.class, () -> HullFaces.read(IntBuffer.wrap(new int[] { 1, 3, 0, 2, 0, 1, 2 })));
+    assertThrows(IllegalArgumentException.class, () -> HullFaces.read(IntBuffer.wrap(new int[] { 2, 3, 0, 3, 2, 0, 1, 2 })));
+    // sizes beyond the data are rejected before allocation
+    assertThrows(IllegalArgumentException.class, () -> HullFaces.read(IntBuffer.wrap(new int[] { Integer.MAX_VALUE, 0, 0 })));
+    assertThrows(IllegalArgumentException.class, () -> HullFaces.read(IntBuffer.wrap(new int[] { 1, Integer.MAX_VALUE, 0, 0 })));
+    assertThrows(IllegalArgumentException.class, () -> HullFaces.read(IntBuffer.wrap(new int[] { 1, 3, 0, 3, 0, 1 })));
+    assertThrows(IllegalArgumentException.class, () -> HullFaces.read(MemorySegment.ofArray(new int[] { 7, Integer.MAX_VALUE, 0 }), 0));
+    assertThrows(IllegalArgumentException.class, () -> HullFaces.read(MemorySegment.ofArray(new int[] { -1, -1, 0 }), 4));
+  }
+}
@@ -0,0 +1,89 @@
+// code by jph
+package ch.alpine.qhull3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import java.util.random.RandomGenerator;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import ch.alpine.tensor.Rational;
+
+class Orient3DTest {
+  private static final RandomGenerator RANDOM = new Random();
+
+  @Test
+  void testInteger() {
+    assertEquals(Rational.of(1, 1), Orient3D.integer(0.5, -1));
+    assertEquals(Rational.of(-3, 1), Orient3D.integer(-0.75, -2));
+    assertEquals(Rational.of(6, 1), Orient3D.integer(0.75, -3));
+    assertEquals(-1, Orient3D.exponent(0.5));
+    assertEquals(-2, Orient3D.exponent(0.75));
+    assertEquals(-1074, Orient3D.exponent(Double.MIN_VALUE));
+    assertEquals(Rational.of(1, 1), Orient3D.integer(Double.MIN_VALUE, -1074));
+    assertEquals(Rational.of(2, 1), Orient3D.integer(2 * Double.MIN_VALUE, -1074));
+  }
+
+  @Test
+  void testUnitTetrahedron() {
+    assertEquals(+1, Orient3D.signum(0, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0, 1));
+    assertEquals(-1, Orient3D.signum(0, 0, 0, 0, 1, 0, 1, 0, 0, 0, 0, 1));
+    assertEquals(0, Orient3D.signum(0, 0, 0, 1, 0, 0, 0, 1, 0, 1, 1, 0));
+    assertEquals(0, Orient3D.signum(0.1, 0, 0, 0.2, 0, 0, 0.3, 0, 0, 0.4, 0, 0));
+  }
+
+  @RepeatedTest(5)
+  void testNearlyCoplanar() {
+    for (int count = 0; count < 1000; ++count) {
+      double[] p = new double[12];
+      for (int index = 0; index < 9; ++index)
+        p[index] = RANDOM.nextDouble() - 0.5;
+      // point on the line through a and b, subject to rounding
+      double lambda = RANDOM.nextDouble() * 4 - 2;
+      for (int d = 0; d < 3; ++d)
+        p[9 + d] = p[d] + lambda * (p[3 + d] - p[d]);
+      assertEquals( //
+          Orient3D.exact(p[0], p[1], p[2], p[3], p[4], p[5], p[6], p[7], p[8], p[9], p[10], p[11]), //
+          Orient3D.signum(p[0], p[1], p[2], p[3], p[4], p[5], p[6], p[7], p[8], p[9], p[10], p[11]));
+      // permutations of the points change the sign consistently
+      assertEquals( //
+          -Orient3D.signum(p[0], p[1], p[2], p[3], p[4], p[5], p[6], p[7], p[8], p[9], p[10], p[11]), //
+          Orient3D.signum(p[3], p[4], p[5], p[0], p[1], p[2], p[6], p[7], p[8], p[9], p[10], p[11]));
+      assertEquals( //
+          Orient3D.signum(p[0], p[1], p[2], p[3], p[4], p[5], p[6], p[7], p[8], p[9], p[10], p[11]), //
+          Orient3D.signum(p[3], p[4], p[5], p[6], p[7], p[8], p[0], p[1], p[2], p[9], p[10], p[11]));
+    }
+  }
+
+  @Test
+  void testExactZero() {
+    // the points a + k (b - a) are exactly collinear for small integers k if the differences are exact
+    assertEquals(0, Orient3D.signum(0.25, 0.5, 1, 1.25, 2.5, 3, 2.25, 4.5, 5, 0.1, 0.2, 0.3));
+    assertEquals(0, Orient3D.signum(0, 0, 0, 1e-300, 2e-300, 3e-300, 2e-300, 4e-300, 6e-300, 7, 3, 1));
+  }
+
+  @RepeatedTest(5)
+  void testDegenerate() {
+    for (int count = 0; count < 1000; ++count) {
+      double[] p = new double[12];
+      for (int index = 0; index < 12; ++index)
+        p[index] = RANDOM.nextDouble() - 0.5;
+      // a coincides with d
+      System.arraycopy(p, 9, p, 0, 3);
+      assertEquals(0, Orient3D.exact(p[0], p[1], p[2], p[3], p[4], p[5], p[6], p[7], p[8], p[9], p[10], p[11]));
+      // b, c, and d are on a line parallel to the z-axis
+      p[0] = RANDOM.nextDouble();
+      p[6] = p[9] = p[3];
+      p[7] = p[10] = p[4];
+      assertEquals(0, Orient3D.exact(p[0], p[1], p[2], p[3], p[4], p[5], p[6], p[7], p[8], p[9], p[10], p[11]));
+      assertEquals(0, Orient3D.signum(p[0], p[1], p[2], p[3], p[4], p[5], p[6], p[7], p[8], p[9], p[10], p[11]));
+      // b and c are on a line parallel to the z-axis, but not d
+      p[10] += 0x1p-40;
+      assertEquals( //
+          Orient3D.exact(p[9], p[10], p[11], p[3], p[4], p[5], p[6], p[7], p[8], p[0], p[1], p[2]), //
+          -Orient3D.exact(p[0], p[1], p[2], p[3], p[4], p[5], p[6], p[7], p[8], p[9], p[10], p[11]));
+    }
+  }
+}
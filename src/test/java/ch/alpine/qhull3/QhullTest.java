@@ -10,6 +10,7 @@ class QhullTest {
   void testSimple() {
     Tensor coords = TestHelper.randomCubedPoints(100, 1.0, 0.5);
     QuickHull3D hull = new QuickHull3D(coords);
+    hull.setValidation(Validation.FULL);
     // hull.buildHull();
     // double[] pnts = Primitives.toDoubleArray(Flatten.of(coords));
     Tensor _pnts = TestHelper.addDegeneracy(QuickHull3DHelper.VERTEX_DEGENERACY, coords, hull);
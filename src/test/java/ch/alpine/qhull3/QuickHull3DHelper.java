@@ -10,12 +10,22 @@
  * software. */
 package ch.alpine.qhull3;
 
+import java.lang.foreign.Arena;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToLongFunction;
 import java.util.random.RandomGenerator;
 
 import ch.alpine.tensor.Tensor;
+import ch.alpine.tensor.Tensors;
+import ch.alpine.tensor.alg.Partition;
+import ch.alpine.tensor.io.Primitives;
 
 /** Testing class for QuickHull3D. Running the command
  * <pre>
@@ -72,6 +82,7 @@ public class QuickHull3DHelper {
 
   void singleTest(Tensor coords) {
     QuickHull3D hull = new QuickHull3D(coords);
+    hull.setValidation(Validation.FULL);
     hull.setDebug(debugEnable);
     hull.buildHull();
     if (!hull.check(System.out))
@@ -84,6 +95,7 @@ public class QuickHull3DHelper {
   void degenerateTest(QuickHull3D hull, Tensor coords) {
     Tensor _coords = TestHelper.addDegeneracy(degeneracyTest, coords, hull);
     QuickHull3D xhull = new QuickHull3D(_coords);
+    xhull.setValidation(Validation.FULL);
     xhull.setDebug(debugEnable);
     try {
       xhull.buildHull();
@@ -137,4 +149,315 @@ public class QuickHull3DHelper {
       System.out.println(n + " points: " + (t1 - t0) / (double) cnt + " msec");
     }
   }
+
+  /** Prints the fraction of input points that are discarded by the
+   * prefilter of DoubleQuickHull3D, and the time to build the hull with and
+   * without the prefilter, for several distributions to System.out. */
+  public void cullingTests() {
+    int n = 1_000_000;
+    List<String> names = List.of("random", "spherical", "cubed", "grid");
+    List<Tensor> list = List.of( //
+        TestHelper.randomPoints(n, 1.0), //
+        TestHelper.randomSphericalPoints(n, 1.0), //
+        TestHelper.randomCubedPoints(n, 1.0, 0.5), //
+        TestHelper.randomGridPoints(100, 4.0));
+    for (int index = 0; index < list.size(); ++index) {
+      double[] coords = Primitives.toDoubleArray(list.get(index));
+      int size = coords.length / 3;
+      for (boolean prefilter : new boolean[] { false, true }) {
+        DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(coords);
+        doubleQuickHull3D.setPrefilter(prefilter);
+        long t0 = System.currentTimeMillis();
+        doubleQuickHull3D.buildHull();
+        long t1 = System.currentTimeMillis();
+        System.out.println(String.format("%-10s prefilter=%-5b culled %7.3f%% %6d msec", //
+            names.get(index), prefilter, 100.0 * doubleQuickHull3D.getNumCulled() / size, t1 - t0));
+      }
+    }
+  }
+
+  /** Prints the time of DivideAndConquerHull3D for fork-join pools with 1 up to
+   * the number of available processors threads, and the time of DoubleQuickHull3D
+   * for comparison, to System.out. */
+  public void divideAndConquerTests() throws Exception {
+    int n = 4_000_000;
+    double[] coords = Primitives.toDoubleArray(TestHelper.randomPoints(n, 1.0));
+    for (int k = 0; k < 2; ++k) { // warm up
+      DivideAndConquerHull3D.of(coords);
+      new DoubleQuickHull3D(coords).buildHull();
+    }
+    long t0 = System.currentTimeMillis();
+    DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(coords);
+    doubleQuickHull3D.setParallel(false);
+    doubleQuickHull3D.buildHull();
+    long t1 = System.currentTimeMillis();
+    System.out.println("DoubleQuickHull3D serial: " + (t1 - t0) + " msec");
+    for (int parallelism = 1; parallelism <= Runtime.getRuntime().availableProcessors(); ++parallelism) {
+      ForkJoinPool forkJoinPool = new ForkJoinPool(parallelism);
+      try {
+        long t2 = System.currentTimeMillis();
+        forkJoinPool.submit(() -> DivideAndConquerHull3D.of(coords)).get();
+        long t3 = System.currentTimeMillis();
+        System.out.println("DivideAndConquerHull3D " + parallelism + " threads: " + (t3 - t2) + " msec");
+      } finally {
+        forkJoinPool.shutdown();
+      }
+    }
+  }
+
+  /** Prints the number of iterations and merges, and the time to build the
+   * hull for each {@link EyeStrategy}, for several distributions to System.out. */
+  public void eyeStrategyTests() {
+    int n = 1_000_000;
+    List<String> names = List.of("random", "spherical", "cubed", "grid");
+    List<Tensor> list = List.of( //
+        TestHelper.randomPoints(n, 1.0), //
+        TestHelper.randomSphericalPoints(n, 1.0), //
+        TestHelper.randomCubedPoints(n, 1.0, 0.5), //
+        TestHelper.randomGridPoints(100, 4.0));
+    for (int index = 0; index < list.size(); ++index) {
+      double[] coords = Primitives.toDoubleArray(list.get(index));
+      for (EyeStrategy eyeStrategy : EyeStrategy.values()) {
+        DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(coords);
+        doubleQuickHull3D.setEyeStrategy(eyeStrategy);
+        long t0 = System.currentTimeMillis();
+        doubleQuickHull3D.buildHull();
+        long t1 = System.currentTimeMillis();
+        System.out.println(String.format("%-10s %-17s iterations %7d merges %7d faces %7d %6d msec", //
+            names.get(index), eyeStrategy, doubleQuickHull3D.getNumIterations(), doubleQuickHull3D.getNumMerges(), //
+            doubleQuickHull3D.getFaces().size(), t1 - t0));
+      }
+    }
+  }
+
+  /** Prints the time to build the hull in the default mode and in robust
+   * mode of DoubleQuickHull3D, as the median of several builds, for several
+   * distributions and for points added near the vertices and edges of a hull
+   * by {@link TestHelper#addDegeneracy}, to System.out. */
+  public void robustTests() {
+    int n = 100_000;
+    Tensor sphere = TestHelper.randomSphericalPoints(2000, 1.0);
+    QuickHull3D quickHull3D = new QuickHull3D(sphere);
+    quickHull3D.buildHull();
+    List<String> names = List.of("random", "spherical", "cubed", "grid", "vertex degeneracy", "edge degeneracy");
+    List<Tensor> list = List.of( //
+        TestHelper.randomPoints(n, 1.0), //
+        TestHelper.randomSphericalPoints(n, 1.0), //
+        TestHelper.randomCubedPoints(n, 1.0, 0.5), //
+        TestHelper.randomGridPoints(20, 4.0), //
+        TestHelper.addDegeneracy(VERTEX_DEGENERACY, sphere, quickHull3D), //
+        TestHelper.addDegeneracy(EDGE_DEGENERACY, sphere, quickHull3D));
+    for (int index = 0; index < list.size(); ++index) {
+      double[] coords = Primitives.toDoubleArray(list.get(index));
+      for (boolean robust : new boolean[] { false, true }) {
+        long[] times = new long[7];
+        int faces = 0;
+        for (int k = 0; k < times.length; ++k) {
+          DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(coords);
+          doubleQuickHull3D.setRobust(robust);
+          long t0 = System.nanoTime();
+          doubleQuickHull3D.buildHull();
+          times[k] = System.nanoTime() - t0;
+          faces = doubleQuickHull3D.getFaces().size();
+        }
+        Arrays.sort(times);
+        System.out.println(String.format("%-17s robust=%-5b faces %6d %8.2f msec", //
+            names.get(index), robust, faces, times[times.length / 2] * 1e-6));
+      }
+    }
+  }
+
+  /** @param k number of points on each rim
+   * @param random
+   * @return coordinates of 2 * k points on the two rims of a cylinder, with caps
+   * that are coplanar up to a perturbation of 1e-15 */
+  static double[] cylinderCaps(int k, Random random) {
+    double[] coords = new double[2 * k * 3];
+    for (int index = 0; index < 2 * k; ++index) {
+      double angle = random.nextDouble() * 2 * Math.PI;
+      coords[3 * index] = Math.cos(angle);
+      coords[3 * index + 1] = Math.sin(angle);
+      coords[3 * index + 2] = (index % 2) + 1e-15 * random.nextGaussian();
+    }
+    return coords;
+  }
+
+  /** Prints the number of merges, the number of vertices of the largest face,
+   * and the time to build the hull of points on the rims of a cylinder, whose
+   * caps grow by tens of thousands of merges, with and without the worklist
+   * of {@link DoubleQuickHull3D#setWorklistMerge(boolean)}, to System.out. */
+  public void capMergeTests() {
+    for (int k : new int[] { 1000, 2000, 4000 }) {
+      double[] coords = cylinderCaps(k, new Random(k));
+      for (boolean worklistMerge : new boolean[] { false, true })
+        for (int rep = 0; rep < 3; ++rep) {
+          DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(coords);
+          doubleQuickHull3D.setWorklistMerge(worklistMerge);
+          long t0 = System.currentTimeMillis();
+          doubleQuickHull3D.buildHull();
+          long t1 = System.currentTimeMillis();
+          if (rep == 2) {
+            List<int[]> faces = doubleQuickHull3D.getFaces();
+            int maxVerts = faces.stream().mapToInt(face -> face.length).max().orElse(0);
+            System.out.println(String.format("k=%-5d worklist %-5b faces %5d merges %7d maxVerts %5d %6d msec", //
+                k, worklistMerge, faces.size(), doubleQuickHull3D.getNumMerges(), maxVerts, t1 - t0));
+          }
+        }
+    }
+  }
+
+  /** Prints the time to build the hull at each {@link Validation} level for
+   * merge-heavy distributions with DoubleQuickHull3D, and with QuickHull3D
+   * on smaller inputs, to System.out. The levels are measured in rounds
+   * after several rounds of warm-up, in an order that rotates from round to
+   * round, and the median and the quartiles of the rounds are printed. */
+  public void validationTests() {
+    List<String> names = List.of("cap k=2000", "cubed", "grid");
+    List<double[]> list = List.of( //
+        cylinderCaps(2000, new Random(2000)), //
+        Primitives.toDoubleArray(TestHelper.randomCubedPoints(200_000, 1.0, 0.5)), //
+        Primitives.toDoubleArray(TestHelper.randomGridPoints(40, 4.0)));
+    for (int index = 0; index < list.size(); ++index) {
+      double[] coords = list.get(index);
+      printValidationTimes(names.get(index), 5, 21, validation -> {
+        DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(coords);
+        doubleQuickHull3D.setValidation(validation);
+        long t0 = System.nanoTime();
+        doubleQuickHull3D.buildHull();
+        return System.nanoTime() - t0;
+      });
+    }
+    List<String> tensorNames = List.of("tensor cap k=500", "tensor cubed");
+    List<Tensor> tensors = List.of( //
+        Partition.of(Tensors.vectorDouble(cylinderCaps(500, new Random(500))), 3), //
+        TestHelper.randomCubedPoints(20_000, 1.0, 0.5));
+    for (int index = 0; index < tensors.size(); ++index) {
+      Tensor coords = tensors.get(index);
+      printValidationTimes(tensorNames.get(index), 3, 11, validation -> {
+        QuickHull3D quickHull3D = new QuickHull3D(coords);
+        quickHull3D.setValidation(validation);
+        long t0 = System.nanoTime();
+        quickHull3D.buildHull();
+        return System.nanoTime() - t0;
+      });
+    }
+  }
+
+  /** @param name of input
+   * @param warmup number of rounds that are not measured
+   * @param rounds number of rounds that are measured
+   * @param build returns the time in nanoseconds to build the hull at given level */
+  private static void printValidationTimes(String name, int warmup, int rounds, ToLongFunction<Validation> build) {
+    Validation[] values = Validation.values();
+    long[][] times = new long[values.length][rounds];
+    for (int round = -warmup; round < rounds; ++round)
+      for (int index = 0; index < values.length; ++index) {
+        int level = Math.floorMod(index + round, values.length);
+        long time = build.applyAsLong(values[level]);
+        if (0 <= round)
+          times[level][round] = time;
+      }
+    for (int level = 0; level < values.length; ++level) {
+      long[] sorted = times[level];
+      Arrays.sort(sorted);
+      System.out.println(String.format("%-16s %-5s median %8.2f msec, quartiles %8.2f %8.2f", name, values[level], //
+          sorted[rounds / 2] * 1e-6, sorted[rounds / 4] * 1e-6, sorted[3 * rounds / 4] * 1e-6));
+    }
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; ++i)
+      System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /** Prints the heap footprint per input point of QuickHull3D, which
+   * holds one Vertex per point, and of DoubleQuickHull3D, which holds
+   * the points in parallel arrays, to System.out. */
+  public void memoryTests() {
+    int n = 1_000_000;
+    Tensor _coords = TestHelper.randomPoints(n, 1.0);
+    double[] coords = Primitives.toDoubleArray(_coords);
+    long m0 = usedMemory();
+    QuickHull3D quickHull3D = new QuickHull3D(_coords);
+    long m1 = usedMemory();
+    Reference.reachabilityFence(quickHull3D);
+    quickHull3D = null;
+    long m2 = usedMemory();
+    DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(coords);
+    long m3 = usedMemory();
+    Reference.reachabilityFence(doubleQuickHull3D);
+    System.out.println("Vertex[] pointBuffer: " + (m1 - m0) / (double) n + " bytes/point (excluding input tensor)");
+    System.out.println("parallel arrays:      " + (m3 - m2) / (double) n + " bytes/point (excluding input array)");
+  }
+
+  /** @return accumulated time of all garbage collections in milliseconds */
+  private static long gcTime() {
+    return ManagementFactory.getGarbageCollectorMXBeans().stream() //
+        .mapToLong(GarbageCollectorMXBean::getCollectionTime) //
+        .sum();
+  }
+
+  /** @param runnable
+   * @return time in milliseconds spent in garbage collection during the
+   * invocation of runnable, and by three full collections afterwards,
+   * while the hull is reachable */
+  private static long gcTime(Runnable runnable) {
+    long t0 = gcTime();
+    runnable.run();
+    for (int i = 0; i < 3; ++i)
+      System.gc();
+    return gcTime() - t0;
+  }
+
+  /** Prints the time spent in garbage collection while the hull of many
+   * points is built and reachable by QuickHull3D, which holds one Vertex
+   * per point in the pointBuffer, by DoubleQuickHull3D with the points
+   * on the heap, and by DoubleQuickHull3D with the points off-heap,
+   * to System.out. The figures depend on the runtime and the collectors,
+   * which are printed first.
+   *
+   * <p>Figures measured on JDK 21.0.1 with the serial collector on one core,
+   * not on the JDK 25 that the build targets:
+   * <pre>
+   * Vertex[] pointBuffer  2059 / 2078 ms in gc
+   * points on heap         109 /  108 ms in gc
+   * points off-heap         21 /   22 ms in gc
+   * </pre> */
+  public void gcPauseTests() {
+    System.out.println("runtime: " + Runtime.version() + ", collectors: " + ManagementFactory.getGarbageCollectorMXBeans().stream() //
+        .map(GarbageCollectorMXBean::getName) //
+        .toList());
+    int n = 2_000_000;
+    // the input tensor is referenced by the vertices of QuickHull3D only
+    Tensor[] input = { TestHelper.randomPoints(n, 1.0) };
+    long gc0 = gcTime(() -> {
+      QuickHull3D quickHull3D = new QuickHull3D(input[0]);
+      input[0] = null;
+      quickHull3D.buildHull();
+      System.gc();
+      Reference.reachabilityFence(quickHull3D);
+    });
+    double[] coords = Primitives.toDoubleArray(TestHelper.randomPoints(n, 1.0));
+    long gc1 = gcTime(() -> {
+      DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(coords);
+      doubleQuickHull3D.buildHull();
+      System.gc();
+      Reference.reachabilityFence(doubleQuickHull3D);
+    });
+    long gc2;
+    try (Arena arena = Arena.ofShared()) {
+      gc2 = gcTime(() -> {
+        DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(arena);
+        doubleQuickHull3D.reset(coords);
+        doubleQuickHull3D.buildHull();
+        System.gc();
+        Reference.reachabilityFence(doubleQuickHull3D);
+      });
+    }
+    System.out.println("Vertex[] pointBuffer: " + gc0 + " ms in gc");
+    System.out.println("points on heap:       " + gc1 + " ms in gc");
+    System.out.println("points off-heap:      " + gc2 + " ms in gc");
+  }
 }
@@ -1,8 +1,12 @@
 // code by John E. Lloyd
 package ch.alpine.qhull3;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
 
 import org.junit.jupiter.api.RepeatedTest;
 
@@ -69,4 +73,34 @@ class QuickHull3DTest {
     Exception exception = assertThrows(Exception.class, hull::buildHull);
     assertEquals(exception.getMessage(), "Input points appear to be coplanar");
   }
+
+  @RepeatedTest(3)
+  void testTriangles() {
+    QuickHull3D hull = new QuickHull3D(TestHelper.randomCubedPoints(100, 1.0, 0.5));
+    hull.setValidation(Validation.FULL);
+    hull.buildHull();
+    int[] triangles = hull.getTriangles();
+    assertEquals(3 * hull.getNumTriangles(), triangles.length);
+    long numVertices = hull.getFaces().stream().flatMapToInt(Arrays::stream).distinct().count();
+    assertEquals(2 * numVertices - 4, hull.getNumTriangles());
+  }
+
+  @RepeatedTest(3)
+  void testValidation() {
+    Tensor coords = TestHelper.randomCubedPoints(200, 1.0, 0.5);
+    QuickHull3D hull = new QuickHull3D(coords);
+    assertEquals(hull.getValidation(), Validation.CHEAP);
+    hull.buildHull();
+    assertTrue(hull.check(System.out));
+    for (Validation validation : Validation.values()) {
+      QuickHull3D validated = new QuickHull3D(coords);
+      validated.setValidation(validation);
+      validated.buildHull();
+      assertTrue(validated.check(System.out));
+      assertEquals(hull.getFaces().size(), validated.getFaces().size());
+      for (int index = 0; index < hull.getFaces().size(); ++index)
+        assertArrayEquals(hull.getFaces().get(index), validated.getFaces().get(index));
+    }
+    assertThrows(NullPointerException.class, () -> hull.setValidation(null));
+  }
 }
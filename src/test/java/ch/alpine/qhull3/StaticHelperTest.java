@@ -3,9 +3,14 @@ package ch.alpine.qhull3;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 import ch.alpine.tensor.RealScalar;
+import ch.alpine.tensor.Tensor;
+import ch.alpine.tensor.Tensors;
+import ch.alpine.tensor.nrm.Vector2Norm;
 
 class StaticHelperTest {
   @Test
@@ -13,4 +18,31 @@ class StaticHelperTest {
     double nextUp = Math.nextUp(1.0) - 1;
     assertEquals(StaticHelper.DOUBLE_PREC, RealScalar.of(nextUp));
   }
+
+  @Test
+  void testNorm() {
+    Random random = new Random();
+    for (int count = 0; count < 1000; ++count) {
+      double x = random.nextGaussian();
+      double y = random.nextGaussian() * 1e-8;
+      double z = random.nextGaussian() * 1e3;
+      Tensor vector = Tensors.vector(x, y, z);
+      double norm = Vector2Norm.of(vector).number().doubleValue();
+      assertEquals(norm, StaticHelper.norm(x, y, z));
+      // the sum of squares depends on the order of the entries
+      assertEquals(Vector2Norm.of(Tensors.vector(-z, x, y)).number().doubleValue(), StaticHelper.norm(-z, x, y));
+      // normalization as in QuickHull3D
+      Tensor normalize = Vector2Norm.NORMALIZE.apply(vector);
+      assertEquals(x * (1 / norm), normalize.Get(0).number().doubleValue());
+      assertEquals(z * (1 / norm), normalize.Get(2).number().doubleValue());
+    }
+    assertEquals(0.0, StaticHelper.norm(0, 0, 0));
+  }
+
+  @Test
+  void testReciprocal() {
+    // centroid of Face
+    for (int numVerts = 3; numVerts < 10000; ++numVerts)
+      assertEquals(1.0 / numVerts, RealScalar.of(numVerts).reciprocal().number().doubleValue());
+  }
 }
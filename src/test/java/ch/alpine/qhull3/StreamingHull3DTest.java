@@ -0,0 +1,77 @@
+// code by jph
+package ch.alpine.qhull3;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import ch.alpine.tensor.io.Primitives;
+
+class StreamingHull3DTest {
+  private static void assertSameHull(double[] coords, int chunkSize) {
+    DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(coords);
+    doubleQuickHull3D.buildHull();
+    StreamingHull3D streamingHull3D = StreamingHull3D.of( //
+        IntStream.range(0, coords.length / 3).mapToObj(index -> Arrays.copyOfRange(coords, index * 3, index * 3 + 3)).iterator(), //
+        chunkSize);
+    assertEquals(coords.length / 3, streamingHull3D.count());
+    List<int[]> faces = streamingHull3D.getFaces();
+    assertEquals(doubleQuickHull3D.getFaces().size(), faces.size());
+    long[] positions = streamingHull3D.getVertexPositions();
+    assertArrayEquals(Arrays.stream(doubleQuickHull3D.getVertexIndices()).asLongStream().toArray(), positions);
+    double[][] vertices = streamingHull3D.getVertices();
+    for (int index = 0; index < positions.length; ++index)
+      assertArrayEquals(Arrays.copyOfRange(coords, (int) positions[index] * 3, (int) positions[index] * 3 + 3), vertices[index]);
+  }
+
+  @RepeatedTest(3)
+  void testRandom() {
+    double[] coords = Primitives.toDoubleArray(TestHelper.randomPoints(20000, 1.0));
+    for (int chunkSize : new int[] { 1, 100, 3000, 50000 })
+      assertSameHull(coords, chunkSize);
+  }
+
+  @Test
+  void testSpherical() {
+    assertSameHull(Primitives.toDoubleArray(TestHelper.randomSphericalPoints(5000, 1.0)), 700);
+  }
+
+  @Test
+  void testChunks() {
+    double[] coords = Primitives.toDoubleArray(TestHelper.randomPoints(3000, 1.0));
+    StreamingHull3D streamingHull3D = new StreamingHull3D(256);
+    for (int index = 0; index < coords.length; index += 300)
+      streamingHull3D.accept(Arrays.copyOfRange(coords, index, index + 300));
+    DoubleQuickHull3D doubleQuickHull3D = new DoubleQuickHull3D(coords);
+    doubleQuickHull3D.buildHull();
+    assertArrayEquals(Arrays.stream(doubleQuickHull3D.getVertexIndices()).asLongStream().toArray(), streamingHull3D.getVertexPositions());
+  }
+
+  @Test
+  void testDegenerateStart() {
+    double[] planar = Primitives.toDoubleArray(TestHelper.randomDegeneratePoints(50, 2));
+    double[] random = Primitives.toDoubleArray(TestHelper.randomPoints(1000, 1.0));
+    double[] coords = new double[planar.length + random.length];
+    System.arraycopy(planar, 0, coords, 0, planar.length);
+    System.arraycopy(random, 0, coords, planar.length, random.length);
+    assertSameHull(coords, 8);
+  }
+
+  @Test
+  void testFails() {
+    assertThrows(IllegalArgumentException.class, () -> new StreamingHull3D(0));
+    StreamingHull3D streamingHull3D = new StreamingHull3D(4);
+    assertThrows(IllegalArgumentException.class, () -> streamingHull3D.accept(new double[4]));
+    streamingHull3D.accept(new double[9]);
+    assertThrows(IllegalArgumentException.class, streamingHull3D::getFaces);
+    streamingHull3D.accept(Primitives.toDoubleArray(TestHelper.randomDegeneratePoints(20, 1)));
+    assertThrows(IllegalArgumentException.class, streamingHull3D::getVertices);
+  }
+}
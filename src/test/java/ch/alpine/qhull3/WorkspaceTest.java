@@ -0,0 +1,20 @@
+// code by jph
+package ch.alpine.qhull3;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class WorkspaceTest {
+  @Test
+  void test() {
+    assertSame(Workspace.of(4), Workspace.of(Workspace.MAX_POINTS));
+    assertNotSame(Workspace.of(4), Workspace.of(Workspace.MAX_POINTS + 1));
+    assertNotSame(Workspace.of(Workspace.MAX_POINTS + 1), Workspace.of(Workspace.MAX_POINTS + 1));
+    assertFalse(Workspace.of(4).getParallel());
+    assertTrue(Workspace.of(Workspace.MAX_POINTS + 1).getParallel());
+  }
+}